@@ -6,6 +6,7 @@ import android.support.v7.widget.GridLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.StaggeredGridLayoutManager;
 
+import com.felix.waverefreshlayout.library.WaveRefreshDecoration;
 import com.felix.waverefreshlayout.library.WaveRefreshLayout;
 import com.felix.waverefreshlayout.sample.R;
 import com.felix.waverefreshlayout.sample.adapter.RecyclerViewDemoAdapter;
@@ -21,7 +22,7 @@ public class RecyclerViewDemoActivity extends BaseActivity {
     private static final int SIZE_OF_DATA = 64;
     private String[] mData = new String[SIZE_OF_DATA];
     private RecyclerView rvDemo;
-    private WaveRefreshLayout waveRefreshLayout;
+    private WaveRefreshDecoration waveRefreshDecoration;
     private Handler mHandler = new CustomHandler(this);
     private int mRefreshTime;
     private Runnable mRunnable = new Runnable() {
@@ -32,7 +33,7 @@ public class RecyclerViewDemoActivity extends BaseActivity {
             for (int i = 0; i < data.length; i++) {
                 data[i] = "Item:" + i + "\nrefresh:" + mRefreshTime;
             }
-            waveRefreshLayout.finishRefresh();
+            waveRefreshDecoration.finishRefresh();
         }
     };
 
@@ -43,7 +44,6 @@ public class RecyclerViewDemoActivity extends BaseActivity {
 
     @Override
     protected void initView() {
-        waveRefreshLayout = (WaveRefreshLayout) findViewById(R.id.wave_refresh_layout);
         rvDemo = (RecyclerView) findViewById(R.id.rv_demo);
     }
 
@@ -58,11 +58,13 @@ public class RecyclerViewDemoActivity extends BaseActivity {
         rvDemo.setAdapter(adapter);
         rvDemo.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
         rvDemo.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.HORIZONTAL));
+        waveRefreshDecoration = new WaveRefreshDecoration(this);
+        waveRefreshDecoration.attachToRecyclerView(rvDemo);
     }
 
     @Override
     protected void initListener() {
-        waveRefreshLayout.setOnRefreshListener(new WaveRefreshLayout.OnRefreshListener() {
+        waveRefreshDecoration.setOnRefreshListener(new WaveRefreshLayout.OnRefreshListener() {
             @Override
             public void onAcquireData() {
                 mHandler.postDelayed(mRunnable, 1000);
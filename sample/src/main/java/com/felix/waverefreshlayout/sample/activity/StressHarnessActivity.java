@@ -0,0 +1,372 @@
+package com.felix.waverefreshlayout.sample.activity;
+
+import android.content.Context;
+import android.os.Handler;
+import android.support.v4.view.PagerAdapter;
+import android.support.v4.view.ViewPager;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.text.TextUtils;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.Spinner;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import com.felix.waverefreshlayout.library.GestureRecorder;
+import com.felix.waverefreshlayout.library.GestureReplayer;
+import com.felix.waverefreshlayout.library.GestureTrace;
+import com.felix.waverefreshlayout.library.WaveRefreshLayout;
+import com.felix.waverefreshlayout.sample.R;
+import com.felix.waverefreshlayout.sample.adapter.StressAdapter;
+import com.felix.waverefreshlayout.sample.util.BaseActivity;
+import com.felix.waverefreshlayout.sample.util.PerformanceOverlay;
+import com.felix.waverefreshlayout.sample.util.PullScripter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压力测试页面，可配置条目数量、条目复杂度、同屏布局数量及ViewPager页数，
+ * 显示帧时间、线程数及内存，并可执行脚本化的下拉刷新
+ *
+ * @author Felix
+ */
+public class StressHarnessActivity extends BaseActivity {
+
+    private static final String TAG = "StressHarness";
+
+    private static final int MODE_SINGLE = 0;
+    private static final int MODE_MULTIPLE = 1;
+    private static final int MODE_PAGER = 2;
+
+    private static final int MAX_ITEM_COUNT = 100000;
+    private static final int MAX_COMPLEXITY = 16;
+    private static final int MAX_LAYOUT_COUNT = 16;
+    private static final int DEFAULT_ITEM_COUNT = 1000;
+    private static final int DEFAULT_COMPLEXITY = 3;
+    private static final int DEFAULT_LAYOUT_COUNT = 3;
+    private static final int SCRIPT_CYCLES = 10;
+    private static final int REFRESH_DELAY = 1000;
+
+    /**
+     * 回放结束后等待回弹及刷新完成的时间
+     */
+    private static final int REPLAY_SETTLE_TIME = 2500;
+
+    private Spinner spMode;
+    private EditText etItemCount;
+    private EditText etComplexity;
+    private EditText etLayoutCount;
+    private Button btApply;
+    private Button btScript;
+    private Button btRecord;
+    private Button btReplay;
+    private FrameLayout flContainer;
+    private ViewPager vpLayouts;
+    private Handler mHandler = new Handler();
+    private PerformanceOverlay mOverlay;
+    private PullScripter mScripter;
+    private List<WaveRefreshLayout> mLayouts = new ArrayList<>();
+    private GestureRecorder mRecorder = new GestureRecorder();
+    private WaveRefreshLayout mRecordingLayout;
+    private GestureTrace mLastTrace;
+
+    @Override
+    protected int getLayoutResID() {
+        return R.layout.activity_stress_harness;
+    }
+
+    @Override
+    protected void initView() {
+        spMode = (Spinner) findViewById(R.id.sp_mode);
+        etItemCount = (EditText) findViewById(R.id.et_item_count);
+        etComplexity = (EditText) findViewById(R.id.et_complexity);
+        etLayoutCount = (EditText) findViewById(R.id.et_layout_count);
+        btApply = (Button) findViewById(R.id.bt_apply);
+        btScript = (Button) findViewById(R.id.bt_script);
+        btRecord = (Button) findViewById(R.id.bt_record);
+        btReplay = (Button) findViewById(R.id.bt_replay);
+        flContainer = (FrameLayout) findViewById(R.id.fl_container);
+        mOverlay = new PerformanceOverlay((TextView) findViewById(R.id.tv_overlay));
+    }
+
+    @Override
+    protected void initData() {
+        ArrayAdapter<CharSequence> modes = ArrayAdapter.createFromResource(this, R.array.stress_modes,
+                android.R.layout.simple_spinner_item);
+        modes.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spMode.setAdapter(modes);
+        etItemCount.setText(String.valueOf(DEFAULT_ITEM_COUNT));
+        etComplexity.setText(String.valueOf(DEFAULT_COMPLEXITY));
+        etLayoutCount.setText(String.valueOf(DEFAULT_LAYOUT_COUNT));
+        mScripter = new PullScripter(new PullScripter.OnProgressListener() {
+            @Override
+            public void onProgress(int cycle, int cycles) {
+                btScript.setText(getString(R.string.stress_script_running, cycle, cycles));
+            }
+
+            @Override
+            public void onFinished() {
+                btScript.setText(R.string.stress_script);
+            }
+        });
+        rebuild();
+    }
+
+    @Override
+    protected void initListener() {
+        btApply.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                rebuild();
+            }
+        });
+        btScript.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                final WaveRefreshLayout target = getScriptTarget();
+                if (target != null) mScripter.start(target, SCRIPT_CYCLES);
+            }
+        });
+        btRecord.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                toggleRecording();
+            }
+        });
+        btReplay.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                replay();
+            }
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mOverlay.start();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        mOverlay.stop();
+        mScripter.stop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mHandler.removeCallbacksAndMessages(null);
+    }
+
+    /**
+     * 按当前配置重新创建测试布局
+     */
+    private void rebuild() {
+        mScripter.stop();
+        mHandler.removeCallbacksAndMessages(null);
+        if (mRecordingLayout != null) toggleRecording();
+        flContainer.removeAllViews();
+        mLayouts.clear();
+        vpLayouts = null;
+        final int itemCount = readInt(etItemCount, DEFAULT_ITEM_COUNT, MAX_ITEM_COUNT);
+        final int complexity = readInt(etComplexity, DEFAULT_COMPLEXITY, MAX_COMPLEXITY);
+        final int layoutCount = readInt(etLayoutCount, DEFAULT_LAYOUT_COUNT, MAX_LAYOUT_COUNT);
+        etItemCount.setText(String.valueOf(itemCount));
+        etComplexity.setText(String.valueOf(complexity));
+        etLayoutCount.setText(String.valueOf(layoutCount));
+        switch (spMode.getSelectedItemPosition()) {
+            case MODE_MULTIPLE:
+                LinearLayout column = new LinearLayout(this);
+                column.setOrientation(LinearLayout.VERTICAL);
+                for (int i = 0; i < layoutCount; i++) {
+                    FrameLayout cell = new FrameLayout(this);
+                    cell.addView(createRefreshLayout(itemCount, complexity));
+                    column.addView(cell, new LinearLayout.LayoutParams(
+                            ViewGroup.LayoutParams.MATCH_PARENT, 0, 1));
+                }
+                flContainer.addView(column);
+                break;
+            case MODE_PAGER:
+                vpLayouts = new ViewPager(this);
+                vpLayouts.setAdapter(new StressPagerAdapter(layoutCount, itemCount, complexity));
+                flContainer.addView(vpLayouts);
+                break;
+            case MODE_SINGLE:
+            default:
+                flContainer.addView(createRefreshLayout(itemCount, complexity));
+                break;
+        }
+    }
+
+    /**
+     * 创建一个包含压力测试列表的刷新布局
+     */
+    private WaveRefreshLayout createRefreshLayout(int itemCount, int complexity) {
+        final Context context = this;
+        final WaveRefreshLayout layout = new WaveRefreshLayout(context);
+        layout.setLayoutParams(new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        final RecyclerView list = new RecyclerView(context);
+        list.setBackgroundColor(0xFFFFFFFF);
+        list.setLayoutManager(new LinearLayoutManager(context));
+        final StressAdapter adapter = new StressAdapter(itemCount, complexity);
+        list.setAdapter(adapter);
+        layout.addView(list, new WaveRefreshLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, getResources().getDisplayMetrics().heightPixels));
+        fitListToParent(layout, list);
+        layout.setOnRefreshListener(new WaveRefreshLayout.OnRefreshListener() {
+            @Override
+            public void onAcquireData() {
+                mHandler.postDelayed(new Runnable() {
+                    @Override
+                    public void run() {
+                        layout.finishRefresh();
+                    }
+                }, REFRESH_DELAY);
+            }
+
+            @Override
+            public void onLoadData() {
+                adapter.refresh();
+            }
+        });
+        mLayouts.add(layout);
+        return layout;
+    }
+
+    /**
+     * {@link WaveRefreshLayout}不限制子控件高度，包裹的列表必须使用确定的高度才能回收复用条目，
+     * 否则会一次布局全部条目。列表先使用屏幕高度，刷新布局每次布局后调整为其父控件的高度
+     *
+     * @param layout 刷新布局
+     * @param list   列表
+     */
+    private void fitListToParent(final WaveRefreshLayout layout, final RecyclerView list) {
+        layout.addOnLayoutChangeListener(new View.OnLayoutChangeListener() {
+            @Override
+            public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom) {
+                if (!(layout.getParent() instanceof View)) return;
+                final int height = ((View) layout.getParent()).getHeight()
+                        - layout.getPaddingTop() - layout.getPaddingBottom();
+                final ViewGroup.LayoutParams lp = list.getLayoutParams();
+                if (height <= 0 || lp.height == height) return;
+                lp.height = height;
+                list.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        list.requestLayout();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 开始或停止记录当前布局的手势，停止时将最近一次手势输出到日志
+     */
+    private void toggleRecording() {
+        if (mRecordingLayout != null) {
+            mRecordingLayout.setGestureRecorder(null);
+            mRecordingLayout = null;
+            mLastTrace = mRecorder.getTrace();
+            Log.i(TAG, "recorded gesture:\n" + mLastTrace.encode());
+            btRecord.setText(R.string.stress_record);
+            return;
+        }
+        mRecordingLayout = getScriptTarget();
+        if (mRecordingLayout == null) return;
+        mRecorder.reset();
+        mRecordingLayout.setGestureRecorder(mRecorder);
+        btRecord.setText(R.string.stress_recording);
+    }
+
+    /**
+     * 在当前布局上回放最近记录的手势，结束后显示回放结果
+     */
+    private void replay() {
+        final WaveRefreshLayout target = getScriptTarget();
+        if (target == null) return;
+        if (mLastTrace == null || mLastTrace.getEvents().isEmpty()) {
+            Toast.makeText(this, R.string.stress_no_trace, Toast.LENGTH_SHORT).show();
+            return;
+        }
+        final GestureReplayer.Session session = GestureReplayer.replay(target, mLastTrace);
+        mHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                final String report = session.finish().toString();
+                Log.i(TAG, report);
+                Toast.makeText(StressHarnessActivity.this, report, Toast.LENGTH_LONG).show();
+            }
+        }, mLastTrace.getDuration() + REPLAY_SETTLE_TIME);
+    }
+
+    /**
+     * 获取脚本下拉的目标，ViewPager模式下为当前页
+     */
+    private WaveRefreshLayout getScriptTarget() {
+        if (vpLayouts != null) {
+            final View page = vpLayouts.findViewWithTag(vpLayouts.getCurrentItem());
+            return page instanceof WaveRefreshLayout ? (WaveRefreshLayout) page : null;
+        }
+        return mLayouts.isEmpty() ? null : mLayouts.get(0);
+    }
+
+    private static int readInt(EditText editText, int defaultValue, int max) {
+        final String text = editText.getText().toString();
+        if (TextUtils.isEmpty(text)) return defaultValue;
+        try {
+            return Math.max(1, Math.min(max, Integer.parseInt(text)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private class StressPagerAdapter extends PagerAdapter {
+
+        private int mCount;
+        private int mItemCount;
+        private int mComplexity;
+
+        StressPagerAdapter(int count, int itemCount, int complexity) {
+            mCount = count;
+            mItemCount = itemCount;
+            mComplexity = complexity;
+        }
+
+        @Override
+        public int getCount() {
+            return mCount;
+        }
+
+        @Override
+        public Object instantiateItem(ViewGroup container, int position) {
+            WaveRefreshLayout layout = createRefreshLayout(mItemCount, mComplexity);
+            layout.setTag(position);
+            container.addView(layout);
+            return layout;
+        }
+
+        @Override
+        public void destroyItem(ViewGroup container, int position, Object object) {
+            container.removeView((View) object);
+            mLayouts.remove(object);
+        }
+
+        @Override
+        public boolean isViewFromObject(View view, Object object) {
+            return view == object;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import com.felix.waverefreshlayout.sample.activity.ListViewDemoActivity;
 import com.felix.waverefreshlayout.sample.activity.NestedScrollDemoActivity;
 import com.felix.waverefreshlayout.sample.activity.RecyclerViewDemoActivity;
 import com.felix.waverefreshlayout.sample.activity.ScrollViewDemoActivity;
+import com.felix.waverefreshlayout.sample.activity.StressHarnessActivity;
 
 /**
  * @author Felix
@@ -24,14 +25,16 @@ public class DemoListAdapter extends RecyclerView.Adapter<DemoListAdapter.ViewHo
             "RecyclerView",
             "ListView",
             "ScrollView",
-            "Nested Scroll"
+            "Nested Scroll",
+            "Stress Harness"
     };
 
     private Class[] mClasses = {
             RecyclerViewDemoActivity.class,
             ListViewDemoActivity.class,
             ScrollViewDemoActivity.class,
-            NestedScrollDemoActivity.class
+            NestedScrollDemoActivity.class,
+            StressHarnessActivity.class
     };
 
     @Override
@@ -0,0 +1,85 @@
+package com.felix.waverefreshlayout.sample.adapter;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+import android.view.Gravity;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+/**
+ * 压力测试列表适配器，条目数量及每个条目内的控件数量可配置
+ *
+ * @author Felix
+ */
+public class StressAdapter extends RecyclerView.Adapter<StressAdapter.ViewHolder> {
+
+    private int mItemCount;
+
+    private int mComplexity;
+
+    private int mRefreshTime;
+
+    /**
+     * @param itemCount  条目数量
+     * @param complexity 每个条目内嵌套的文本控件数量
+     */
+    public StressAdapter(int itemCount, int complexity) {
+        mItemCount = itemCount;
+        mComplexity = Math.max(1, complexity);
+    }
+
+    /**
+     * 模拟一次刷新后的数据变化
+     */
+    public void refresh() {
+        mRefreshTime++;
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        final Context context = parent.getContext();
+        LinearLayout root = new LinearLayout(context);
+        root.setOrientation(LinearLayout.VERTICAL);
+        root.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT));
+        TextView[] texts = new TextView[mComplexity];
+        ViewGroup parentGroup = root;
+        for (int i = 0; i < mComplexity; i++) {
+            LinearLayout row = new LinearLayout(context);
+            row.setOrientation(i % 2 == 0 ? LinearLayout.HORIZONTAL : LinearLayout.VERTICAL);
+            TextView text = new TextView(context);
+            text.setGravity(Gravity.CENTER_VERTICAL);
+            text.setPadding(16, 8, 16, 8);
+            row.addView(text);
+            parentGroup.addView(row);
+            parentGroup = row;
+            texts[i] = text;
+        }
+        return new ViewHolder(root, texts);
+    }
+
+    @Override
+    public void onBindViewHolder(ViewHolder holder, int position) {
+        final TextView[] texts = holder.texts;
+        for (int i = 0; i < texts.length; i++) {
+            texts[i].setText("Item:" + position + " view:" + i + " refresh:" + mRefreshTime);
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    class ViewHolder extends RecyclerView.ViewHolder {
+
+        private TextView[] texts;
+
+        public ViewHolder(LinearLayout itemView, TextView[] texts) {
+            super(itemView);
+            this.texts = texts;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.felix.waverefreshlayout.sample.util;
+
+import android.view.Choreographer;
+import android.widget.TextView;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * 性能浮层，统计帧间隔并定时显示平均及最大帧时间、掉帧数、线程数和内存占用
+ *
+ * @author Felix
+ */
+public class PerformanceOverlay implements Choreographer.FrameCallback {
+
+    /**
+     * 刷新显示的间隔
+     */
+    private static final long REPORT_INTERVAL_NANOS = 500000000L;
+
+    /**
+     * 超过该帧间隔视为掉帧
+     */
+    private static final long JANK_THRESHOLD_NANOS = 25000000L;
+
+    private TextView tvOverlay;
+
+    private boolean mIsRunning;
+
+    private long mLastFrameNanos;
+
+    private long mReportStartNanos;
+
+    private int mFrameCount;
+
+    private long mMaxFrameNanos;
+
+    private int mJankCount;
+
+    public PerformanceOverlay(TextView overlay) {
+        tvOverlay = overlay;
+    }
+
+    public void start() {
+        if (mIsRunning) return;
+        mIsRunning = true;
+        mLastFrameNanos = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    public void stop() {
+        mIsRunning = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mIsRunning) return;
+        if (mLastFrameNanos != 0) {
+            final long interval = frameTimeNanos - mLastFrameNanos;
+            mFrameCount++;
+            mMaxFrameNanos = Math.max(mMaxFrameNanos, interval);
+            if (interval > JANK_THRESHOLD_NANOS) mJankCount++;
+        } else {
+            mReportStartNanos = frameTimeNanos;
+        }
+        mLastFrameNanos = frameTimeNanos;
+        final long elapsed = frameTimeNanos - mReportStartNanos;
+        if (elapsed >= REPORT_INTERVAL_NANOS && mFrameCount > 0) {
+            report(elapsed);
+            mReportStartNanos = frameTimeNanos;
+            mFrameCount = 0;
+            mMaxFrameNanos = 0;
+            mJankCount = 0;
+        }
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void report(long elapsed) {
+        final Runtime runtime = Runtime.getRuntime();
+        final long usedMb = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+        tvOverlay.setText(String.format(Locale.US,
+                "frame avg %.1fms max %.1fms\njank %d  threads %d\nheap %dMB / %dMB",
+                elapsed / 1e6 / mFrameCount, mMaxFrameNanos / 1e6, mJankCount,
+                getThreadCount(), usedMb, runtime.maxMemory() >> 20));
+    }
+
+    /**
+     * 获取进程内的线程数，包括非Java线程
+     */
+    private static int getThreadCount() {
+        final String[] tasks = new File("/proc/self/task").list();
+        return tasks != null ? tasks.length : Thread.activeCount();
+    }
+}
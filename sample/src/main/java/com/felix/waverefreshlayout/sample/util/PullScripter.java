@@ -0,0 +1,128 @@
+package com.felix.waverefreshlayout.sample.util;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * 下拉脚本，向目标控件注入合成的触摸事件以重复执行下拉刷新
+ *
+ * @author Felix
+ */
+public class PullScripter {
+
+    /**
+     * 单次下拉的距离
+     */
+    private static final int PULL_DISTANCE = 800;
+
+    /**
+     * 单次下拉拆分的移动事件数
+     */
+    private static final int MOVE_STEPS = 30;
+
+    /**
+     * 相邻移动事件的间隔
+     */
+    private static final int MOVE_INTERVAL = 10;
+
+    /**
+     * 松手后等待刷新完成的时间
+     */
+    private static final int CYCLE_INTERVAL = 2500;
+
+    private Handler mHandler = new Handler();
+
+    private View mTarget;
+
+    private int mCycles;
+
+    private int mCurrentCycle;
+
+    private int mCurrentStep;
+
+    private long mDownTime;
+
+    private OnProgressListener mOnProgressListener;
+
+    public PullScripter(OnProgressListener listener) {
+        mOnProgressListener = listener;
+    }
+
+    /**
+     * 开始执行脚本，正在执行时会先停止
+     *
+     * @param target 目标控件
+     * @param cycles 下拉刷新次数
+     */
+    public void start(View target, int cycles) {
+        stop();
+        mTarget = target;
+        mCycles = cycles;
+        mCurrentCycle = 0;
+        mCurrentStep = 0;
+        mHandler.post(mPullRunnable);
+    }
+
+    /**
+     * 停止执行脚本，正在执行时回调{@link OnProgressListener#onFinished()}
+     */
+    public void stop() {
+        mHandler.removeCallbacks(mPullRunnable);
+        if (mTarget == null) return;
+        mTarget = null;
+        mOnProgressListener.onFinished();
+    }
+
+    private Runnable mPullRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mTarget == null) return;
+            final float x = mTarget.getWidth() / 2f;
+            final long now = SystemClock.uptimeMillis();
+            if (mCurrentStep == 0) {
+                mDownTime = now;
+                mOnProgressListener.onProgress(mCurrentCycle + 1, mCycles);
+                dispatch(MotionEvent.ACTION_DOWN, x, 0, now);
+            } else if (mCurrentStep <= MOVE_STEPS) {
+                dispatch(MotionEvent.ACTION_MOVE, x, PULL_DISTANCE * mCurrentStep / (float) MOVE_STEPS, now);
+            } else {
+                dispatch(MotionEvent.ACTION_UP, x, PULL_DISTANCE, now);
+                mCurrentStep = 0;
+                mCurrentCycle++;
+                if (mCurrentCycle < mCycles) {
+                    mHandler.postDelayed(this, CYCLE_INTERVAL);
+                } else {
+                    mTarget = null;
+                    mOnProgressListener.onFinished();
+                }
+                return;
+            }
+            mCurrentStep++;
+            mHandler.postDelayed(this, MOVE_INTERVAL);
+        }
+    };
+
+    private void dispatch(int action, float x, float y, long eventTime) {
+        MotionEvent event = MotionEvent.obtain(mDownTime, eventTime, action, x, y, 0);
+        mTarget.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    public interface OnProgressListener {
+
+        /**
+         * 开始执行一次下拉刷新
+         *
+         * @param cycle  当前执行到的次数，从1开始
+         * @param cycles 总次数
+         */
+        void onProgress(int cycle, int cycles);
+
+        /**
+         * 脚本执行完毕或被停止
+         */
+        void onFinished();
+    }
+}
@@ -0,0 +1,48 @@
+package com.felix.waverefreshlayout.library;
+
+import android.view.MotionEvent;
+
+/**
+ * 触摸事件记录器，通过{@link WaveRefreshLayout#setGestureRecorder(GestureRecorder)}设置后，
+ * 记录控件收到的全部触摸事件，序列在每次{@link MotionEvent#ACTION_DOWN}时重新开始
+ *
+ * @author Felix
+ * @see GestureTrace
+ */
+public class GestureRecorder {
+
+    private GestureTrace mTrace = new GestureTrace();
+
+    private long mStartTime = -1;
+
+    /**
+     * 记录一个触摸事件
+     *
+     * @param event 触摸事件
+     */
+    public void record(MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mTrace = new GestureTrace();
+            mStartTime = event.getDownTime();
+        }
+        if (mStartTime < 0) return;
+        mTrace.add(GestureTrace.Event.from(event, mStartTime));
+    }
+
+    /**
+     * 获取最近一次手势的触摸事件序列
+     *
+     * @return 触摸事件序列
+     */
+    public GestureTrace getTrace() {
+        return mTrace;
+    }
+
+    /**
+     * 清空已记录的序列
+     */
+    public void reset() {
+        mTrace = new GestureTrace();
+        mStartTime = -1;
+    }
+}
@@ -0,0 +1,205 @@
+package com.felix.waverefreshlayout.library;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 触摸事件回放器，将{@link GestureTrace}注入{@link WaveRefreshLayout}，
+ * 并统计经历的状态、绘制帧数、{@link WaveTracer#SECTION_TOUCH}及{@link WaveTracer#SECTION_COMPUTE_SCROLL}耗时，
+ * 以及是否触发了刷新。回放期间会替换控件的{@link WaveTracer}及{@link WaveRefreshLayout.OnPullStateListener}，
+ * 原监听器仍会收到回调，结束后均恢复
+ *
+ * @author Felix
+ */
+public class GestureReplayer {
+
+    private GestureReplayer() {
+    }
+
+    /**
+     * 按原始时间间隔回放，需在主线程调用
+     *
+     * @param layout 目标控件
+     * @param trace  触摸事件序列
+     * @return 回放会话，回放及后续动画结束后调用{@link Session#finish()}获取结果
+     */
+    public static Session replay(WaveRefreshLayout layout, GestureTrace trace) {
+        final Session session = new Session(layout);
+        final long baseTime = SystemClock.uptimeMillis();
+        for (final GestureTrace.Event event : trace.getEvents()) {
+            final Runnable runnable = new Runnable() {
+                @Override
+                public void run() {
+                    session.dispatch(event, baseTime);
+                }
+            };
+            session.mPending.add(runnable);
+            layout.postDelayed(runnable, event.getEventTime());
+        }
+        return session;
+    }
+
+    /**
+     * 立即同步回放全部事件，事件时间仍保持原始间隔，适用于JVM测试
+     *
+     * @param layout 目标控件
+     * @param trace  触摸事件序列
+     * @return 回放会话，驱动后续动画后调用{@link Session#finish()}获取结果
+     */
+    public static Session replayImmediately(WaveRefreshLayout layout, GestureTrace trace) {
+        final Session session = new Session(layout);
+        final long baseTime = SystemClock.uptimeMillis();
+        for (GestureTrace.Event event : trace.getEvents()) {
+            session.dispatch(event, baseTime);
+        }
+        return session;
+    }
+
+    /**
+     * 回放会话
+     */
+    public static class Session {
+
+        private final WaveRefreshLayout mLayout;
+
+        private final WaveTracer mPreviousTracer;
+
+        private final RecordingTracer mTracer = new RecordingTracer();
+
+        private final StateRecorder mStateRecorder;
+
+        private final List<Runnable> mPending = new ArrayList<>();
+
+        private Report mReport;
+
+        Session(WaveRefreshLayout layout) {
+            mLayout = layout;
+            mPreviousTracer = layout.getTracer();
+            layout.setTracer(mTracer);
+            mStateRecorder = new StateRecorder(layout.getState(), layout.getOnPullStateListener());
+            layout.setOnPullStateListener(mStateRecorder);
+        }
+
+        void dispatch(GestureTrace.Event event, long baseTime) {
+            final MotionEvent motionEvent = event.obtain(baseTime);
+            mLayout.dispatchTouchEvent(motionEvent);
+            motionEvent.recycle();
+        }
+
+        /**
+         * 结束回放，取消尚未注入的事件并恢复原有的追踪器，重复调用返回同一结果
+         *
+         * @return 回放结果
+         */
+        public Report finish() {
+            if (mReport != null) return mReport;
+            for (Runnable runnable : mPending) mLayout.removeCallbacks(runnable);
+            mPending.clear();
+            mLayout.setTracer(mPreviousTracer);
+            mLayout.setOnPullStateListener(mStateRecorder.mPrevious);
+            mReport = new Report(mStateRecorder.mVisitedStates, mTracer);
+            return mReport;
+        }
+    }
+
+    /**
+     * 回放结果
+     */
+    public static class Report {
+
+        private final List<Integer> mVisitedStates;
+
+        private int mFrameCount;
+
+        private long mTouchNanos;
+
+        private long mComputeScrollNanos;
+
+        private boolean mIsRefreshFired;
+
+        Report(List<Integer> visitedStates, RecordingTracer tracer) {
+            mVisitedStates = Collections.unmodifiableList(new ArrayList<>(visitedStates));
+            for (RecordingTracer.Span span : tracer.getSpans()) {
+                final String name = span.getName();
+                if (WaveTracer.SECTION_DRAW.equals(name)) {
+                    mFrameCount++;
+                } else if (WaveTracer.SECTION_TOUCH.equals(name)) {
+                    mTouchNanos += span.getDurationNanos();
+                } else if (WaveTracer.SECTION_COMPUTE_SCROLL.equals(name)) {
+                    mComputeScrollNanos += span.getDurationNanos();
+                } else if (WaveTracer.SECTION_ACQUIRE_DATA.equals(name)) {
+                    mIsRefreshFired = true;
+                }
+            }
+        }
+
+        /**
+         * 获取依次经历的状态，相邻的相同状态只保留一个
+         *
+         * @return {@link WaveRefreshLayout.State}列表
+         */
+        public List<Integer> getVisitedStates() {
+            return mVisitedStates;
+        }
+
+        public int getFrameCount() {
+            return mFrameCount;
+        }
+
+        public long getTouchNanos() {
+            return mTouchNanos;
+        }
+
+        public long getComputeScrollNanos() {
+            return mComputeScrollNanos;
+        }
+
+        /**
+         * 是否回调了{@link WaveRefreshLayout.OnRefreshListener#onAcquireData()}
+         *
+         * @return true表示触发了刷新，false则相反
+         */
+        public boolean isRefreshFired() {
+            return mIsRefreshFired;
+        }
+
+        @Override
+        public String toString() {
+            return "Report{states=" + mVisitedStates
+                    + ", frames=" + mFrameCount
+                    + ", touchMs=" + mTouchNanos / 1e6
+                    + ", computeScrollMs=" + mComputeScrollNanos / 1e6
+                    + ", refreshFired=" + mIsRefreshFired + "}";
+        }
+    }
+
+    /**
+     * 从控件的状态变化回调中记录经历的状态，不遗漏两次采样之间短暂经过的状态，并转发给原监听器
+     */
+    private static class StateRecorder implements WaveRefreshLayout.OnPullStateListener {
+
+        private final WaveRefreshLayout.OnPullStateListener mPrevious;
+
+        private final List<Integer> mVisitedStates = new ArrayList<>();
+
+        StateRecorder(int initialState, WaveRefreshLayout.OnPullStateListener previous) {
+            mPrevious = previous;
+            mVisitedStates.add(initialState);
+        }
+
+        @Override
+        public void onStateChanged(int oldState, int newState) {
+            mVisitedStates.add(newState);
+            if (mPrevious != null) mPrevious.onStateChanged(oldState, newState);
+        }
+
+        @Override
+        public void onRefreshLikely() {
+            if (mPrevious != null) mPrevious.onRefreshLikely();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.felix.waverefreshlayout.library;
+
+import android.view.MotionEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 可序列化的触摸事件序列，保留每个事件的动作、触摸点ID及包括历史采样在内的全部采样，
+ * 时间为相对于第一个事件的毫秒偏移
+ *
+ * @author Felix
+ * @see GestureRecorder
+ * @see GestureReplayer
+ */
+public class GestureTrace {
+
+    private final List<Event> mEvents = new ArrayList<>();
+
+    void add(Event event) {
+        mEvents.add(event);
+    }
+
+    public List<Event> getEvents() {
+        return Collections.unmodifiableList(mEvents);
+    }
+
+    /**
+     * 获取序列的总时长
+     *
+     * @return 最后一个采样的时间偏移
+     */
+    public long getDuration() {
+        return mEvents.isEmpty() ? 0 : mEvents.get(mEvents.size() - 1).getEventTime();
+    }
+
+    /**
+     * 编码为文本，每行一个事件，格式为
+     * {@code 动作 触摸点数 触摸点ID...;时间 x y...;时间 x y...}，最后一组采样为当前采样，之前的为历史采样
+     *
+     * @return 文本
+     */
+    public String encode() {
+        StringBuilder sb = new StringBuilder();
+        for (Event event : mEvents) {
+            sb.append(event.mAction).append(' ').append(event.mPointerIds.length);
+            for (int id : event.mPointerIds) sb.append(' ').append(id);
+            final int pointerCount = event.mPointerIds.length;
+            for (int s = 0; s < event.mSampleTimes.length; s++) {
+                sb.append(';').append(event.mSampleTimes[s]);
+                for (int p = 0; p < pointerCount; p++) {
+                    final int offset = (s * pointerCount + p) * 2;
+                    sb.append(' ').append(event.mCoords[offset]).append(' ').append(event.mCoords[offset + 1]);
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 从{@link #encode()}生成的文本解码
+     *
+     * @param text 文本
+     * @return 触摸事件序列
+     * @throws IllegalArgumentException 文本格式错误
+     */
+    public static GestureTrace decode(String text) {
+        GestureTrace trace = new GestureTrace();
+        for (String line : text.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            try {
+                final String[] groups = line.split(";");
+                final String[] header = groups[0].trim().split(" ");
+                final int action = Integer.parseInt(header[0]);
+                final int pointerCount = Integer.parseInt(header[1]);
+                final int[] ids = new int[pointerCount];
+                for (int p = 0; p < pointerCount; p++) ids[p] = Integer.parseInt(header[2 + p]);
+                final int sampleCount = groups.length - 1;
+                final long[] times = new long[sampleCount];
+                final float[] coords = new float[sampleCount * pointerCount * 2];
+                for (int s = 0; s < sampleCount; s++) {
+                    final String[] values = groups[s + 1].trim().split(" ");
+                    times[s] = Long.parseLong(values[0]);
+                    for (int i = 0; i < pointerCount * 2; i++) {
+                        coords[s * pointerCount * 2 + i] = Float.parseFloat(values[1 + i]);
+                    }
+                }
+                trace.add(new Event(action, ids, times, coords));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("无法解析触摸事件：" + line, e);
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * 单个触摸事件，包含其全部采样
+     */
+    public static class Event {
+
+        private final int mAction;
+
+        private final int[] mPointerIds;
+
+        /**
+         * 各采样的时间偏移，最后一个为当前采样
+         */
+        private final long[] mSampleTimes;
+
+        /**
+         * 按采样、触摸点顺序排列的坐标，每个触摸点依次为x、y
+         */
+        private final float[] mCoords;
+
+        Event(int action, int[] pointerIds, long[] sampleTimes, float[] coords) {
+            if (sampleTimes.length == 0) throw new IllegalArgumentException("事件至少包含一个采样");
+            mAction = action;
+            mPointerIds = pointerIds;
+            mSampleTimes = sampleTimes;
+            mCoords = coords;
+        }
+
+        /**
+         * 从触摸事件创建，包括全部历史采样
+         *
+         * @param event     触摸事件
+         * @param startTime 序列开始时间
+         * @return 事件
+         */
+        static Event from(MotionEvent event, long startTime) {
+            final int pointerCount = event.getPointerCount();
+            final int historySize = event.getHistorySize();
+            final int[] ids = new int[pointerCount];
+            for (int p = 0; p < pointerCount; p++) ids[p] = event.getPointerId(p);
+            final long[] times = new long[historySize + 1];
+            final float[] coords = new float[(historySize + 1) * pointerCount * 2];
+            for (int s = 0; s <= historySize; s++) {
+                final boolean current = s == historySize;
+                times[s] = (current ? event.getEventTime() : event.getHistoricalEventTime(s)) - startTime;
+                for (int p = 0; p < pointerCount; p++) {
+                    final int offset = (s * pointerCount + p) * 2;
+                    coords[offset] = current ? event.getX(p) : event.getHistoricalX(p, s);
+                    coords[offset + 1] = current ? event.getY(p) : event.getHistoricalY(p, s);
+                }
+            }
+            return new Event(event.getAction(), ids, times, coords);
+        }
+
+        /**
+         * 以指定时间为基准生成触摸事件，调用方负责回收
+         *
+         * @param baseTime 序列开始时间，取自{@link android.os.SystemClock#uptimeMillis()}
+         * @return 触摸事件
+         */
+        MotionEvent obtain(long baseTime) {
+            final int pointerCount = mPointerIds.length;
+            final MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[pointerCount];
+            final MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[pointerCount];
+            for (int p = 0; p < pointerCount; p++) {
+                properties[p] = new MotionEvent.PointerProperties();
+                properties[p].id = mPointerIds[p];
+                properties[p].toolType = MotionEvent.TOOL_TYPE_FINGER;
+                coords[p] = new MotionEvent.PointerCoords();
+            }
+            fillCoords(0, coords);
+            final MotionEvent event = MotionEvent.obtain(baseTime, baseTime + mSampleTimes[0], mAction,
+                    pointerCount, properties, coords, 0, 0, 1, 1, 0, 0, 0, 0);
+            for (int s = 1; s < mSampleTimes.length; s++) {
+                fillCoords(s, coords);
+                event.addBatch(baseTime + mSampleTimes[s], coords, 0);
+            }
+            return event;
+        }
+
+        private void fillCoords(int sample, MotionEvent.PointerCoords[] coords) {
+            final int pointerCount = mPointerIds.length;
+            for (int p = 0; p < pointerCount; p++) {
+                final int offset = (sample * pointerCount + p) * 2;
+                coords[p].x = mCoords[offset];
+                coords[p].y = mCoords[offset + 1];
+                coords[p].pressure = 1;
+                coords[p].size = 1;
+            }
+        }
+
+        public int getAction() {
+            return mAction;
+        }
+
+        public int getActionMasked() {
+            return mAction & MotionEvent.ACTION_MASK;
+        }
+
+        public int getPointerCount() {
+            return mPointerIds.length;
+        }
+
+        public int getSampleCount() {
+            return mSampleTimes.length;
+        }
+
+        /**
+         * 获取当前采样的时间偏移
+         *
+         * @return 毫秒数
+         */
+        public long getEventTime() {
+            return mSampleTimes[mSampleTimes.length - 1];
+        }
+    }
+}
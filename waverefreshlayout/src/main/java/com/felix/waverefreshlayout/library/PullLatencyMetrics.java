@@ -0,0 +1,129 @@
+package com.felix.waverefreshlayout.library;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+
+/**
+ * 下拉延迟统计，保留最近若干次手势的延迟分布摘要，并计算各摘要在手势间的百分位数，
+ * 如{@code getPercentile(STAT_P90, 95)}表示95%的手势中90%的帧延迟不超过该值
+ *
+ * @author Felix
+ * @see PullLatencyRecord
+ */
+public class PullLatencyMetrics {
+
+    /**
+     * 默认保留的手势数
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * 摘要类型注解，所修饰变量可取
+     * {@link #STAT_P50}，
+     * {@link #STAT_P90}，
+     * {@link #STAT_MAX}之一
+     */
+    @IntDef({STAT_P50, STAT_P90, STAT_MAX})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Stat {
+
+    }
+
+    /**
+     * 单次手势延迟的中位数
+     */
+    public static final int STAT_P50 = 0;
+
+    /**
+     * 单次手势延迟的90百分位数
+     */
+    public static final int STAT_P90 = 1;
+
+    /**
+     * 单次手势的最大延迟
+     */
+    public static final int STAT_MAX = 2;
+
+    private static final int STAT_COUNT = 3;
+
+    /**
+     * 各摘要的环形缓冲
+     */
+    private final long[][] mSamples;
+
+    /**
+     * 百分位计算时使用的临时数组
+     */
+    private final long[] mSortBuffer;
+
+    /**
+     * 当前记录数
+     */
+    private int mCount;
+
+    /**
+     * 下一条记录写入位置
+     */
+    private int mNext;
+
+    public PullLatencyMetrics() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PullLatencyMetrics(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("容量需大于0");
+        mSamples = new long[STAT_COUNT][capacity];
+        mSortBuffer = new long[capacity];
+    }
+
+    /**
+     * 添加一次手势的延迟记录，无样本的记录将被忽略
+     *
+     * @param record 延迟记录
+     */
+    public void add(PullLatencyRecord record) {
+        if (record.getSampleCount() == 0) return;
+        mSamples[STAT_P50][mNext] = record.getPercentile(50);
+        mSamples[STAT_P90][mNext] = record.getPercentile(90);
+        mSamples[STAT_MAX][mNext] = record.getMax();
+        final int capacity = mSortBuffer.length;
+        mNext = (mNext + 1) % capacity;
+        if (mCount < capacity) mCount++;
+    }
+
+    /**
+     * 获取当前保留的手势数
+     *
+     * @return 手势数
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * 计算指定摘要在各手势间的百分位数
+     *
+     * @param stat       摘要
+     * @param percentile 百分位，取值范围为[0, 100]
+     * @return 毫秒数，无记录时返回{@link RefreshRecord#NOT_RECORDED}
+     */
+    public long getPercentile(@Stat int stat, float percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("百分位需在[0, 100]范围内");
+        if (mCount == 0) return RefreshRecord.NOT_RECORDED;
+        System.arraycopy(mSamples[stat], 0, mSortBuffer, 0, mCount);
+        Arrays.sort(mSortBuffer, 0, mCount);
+        final int index = (int) Math.ceil(percentile / 100f * mCount) - 1;
+        return mSortBuffer[Math.max(0, index)];
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public void clear() {
+        mCount = 0;
+        mNext = 0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.felix.waverefreshlayout.library;
+
+import java.util.Arrays;
+
+/**
+ * 单次下拉手势的输入到显示延迟记录，每个样本为一次改变下拉位置的触摸事件从采样到对应帧显示的毫秒数
+ *
+ * @author Felix
+ * @see PullLatencyMetrics
+ */
+public class PullLatencyRecord {
+
+    /**
+     * 初始样本容量
+     */
+    private static final int INITIAL_CAPACITY = 32;
+
+    /**
+     * 手势按下的时间，取自{@link android.view.MotionEvent#getDownTime()}
+     */
+    final long downTime;
+
+    /**
+     * 各帧的延迟样本
+     */
+    private long[] mSamples = new long[INITIAL_CAPACITY];
+
+    /**
+     * 样本数
+     */
+    private int mCount;
+
+    /**
+     * 样本是否已排序
+     */
+    private boolean mIsSorted = true;
+
+    PullLatencyRecord(long downTime) {
+        this.downTime = downTime;
+    }
+
+    /**
+     * 添加一个延迟样本
+     *
+     * @param latency 毫秒数
+     */
+    void add(long latency) {
+        if (mCount == mSamples.length) mSamples = Arrays.copyOf(mSamples, mCount * 2);
+        if (mCount > 0 && latency < mSamples[mCount - 1]) mIsSorted = false;
+        mSamples[mCount++] = latency;
+    }
+
+    public long getDownTime() {
+        return downTime;
+    }
+
+    /**
+     * 获取样本数，即本次手势中下拉位置发生变化的帧数
+     *
+     * @return 样本数
+     */
+    public int getSampleCount() {
+        return mCount;
+    }
+
+    /**
+     * 计算本次手势延迟的百分位数
+     *
+     * @param percentile 百分位，取值范围为[0, 100]
+     * @return 毫秒数，无样本时返回{@link RefreshRecord#NOT_RECORDED}
+     */
+    public long getPercentile(float percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("百分位需在[0, 100]范围内");
+        if (mCount == 0) return RefreshRecord.NOT_RECORDED;
+        if (!mIsSorted) {
+            Arrays.sort(mSamples, 0, mCount);
+            mIsSorted = true;
+        }
+        final int index = (int) Math.ceil(percentile / 100f * mCount) - 1;
+        return mSamples[Math.max(0, index)];
+    }
+
+    /**
+     * 获取本次手势的最大延迟
+     *
+     * @return 毫秒数，无样本时返回{@link RefreshRecord#NOT_RECORDED}
+     */
+    public long getMax() {
+        return getPercentile(100);
+    }
+
+    @Override
+    public String toString() {
+        return "PullLatencyRecord{samples=" + mCount
+                + ", p50=" + getPercentile(50)
+                + ", p90=" + getPercentile(90)
+                + ", max=" + getMax() + "}";
+    }
+}
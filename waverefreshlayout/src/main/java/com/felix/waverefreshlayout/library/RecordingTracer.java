@@ -0,0 +1,103 @@
+package com.felix.waverefreshlayout.library;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 在内存中记录区段的追踪器，用于测试或接入自定义的性能分析工具，仅应在主线程中使用
+ *
+ * @author Felix
+ */
+public class RecordingTracer implements WaveTracer {
+
+    /**
+     * 已结束的区段
+     */
+    private final List<Span> mSpans = new ArrayList<>();
+
+    /**
+     * 尚未结束的区段
+     */
+    private final List<Span> mOpenSpans = new ArrayList<>();
+
+    @Override
+    public void beginSection(String name) {
+        mOpenSpans.add(new Span(name, System.nanoTime(), mOpenSpans.size()));
+    }
+
+    @Override
+    public void endSection() {
+        if (mOpenSpans.isEmpty()) throw new IllegalStateException("没有未结束的区段");
+        final Span span = mOpenSpans.remove(mOpenSpans.size() - 1);
+        span.mEndNanos = System.nanoTime();
+        mSpans.add(span);
+    }
+
+    /**
+     * 获取已结束的区段，按结束顺序排列
+     *
+     * @return 区段列表
+     */
+    public List<Span> getSpans() {
+        return Collections.unmodifiableList(mSpans);
+    }
+
+    /**
+     * 清空已记录的区段
+     */
+    public void clear() {
+        mSpans.clear();
+        mOpenSpans.clear();
+    }
+
+    /**
+     * 一个已记录的区段
+     */
+    public static class Span {
+
+        private final String mName;
+
+        private final long mStartNanos;
+
+        private final int mDepth;
+
+        private long mEndNanos;
+
+        Span(String name, long startNanos, int depth) {
+            mName = name;
+            mStartNanos = startNanos;
+            mDepth = depth;
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        public long getStartNanos() {
+            return mStartNanos;
+        }
+
+        public long getEndNanos() {
+            return mEndNanos;
+        }
+
+        public long getDurationNanos() {
+            return mEndNanos - mStartNanos;
+        }
+
+        /**
+         * 获取嵌套深度，最外层为0
+         *
+         * @return 嵌套深度
+         */
+        public int getDepth() {
+            return mDepth;
+        }
+
+        @Override
+        public String toString() {
+            return mName + "(" + getDurationNanos() + "ns)";
+        }
+    }
+}
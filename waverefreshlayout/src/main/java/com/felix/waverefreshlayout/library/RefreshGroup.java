@@ -0,0 +1,119 @@
+package com.felix.waverefreshlayout.library;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 刷新组，用于多个共享同一数据源的{@link WaveRefreshLayout}，需在主线程使用。
+ * <p>
+ * 组内第一个进入刷新的控件成为发起者，仅回调它的{@link WaveRefreshLayout.OnRefreshListener#onAcquireData()}；
+ * 共享获取进行期间其它成员下拉刷新时不会再次获取数据，只显示刷新中的头部并等待。
+ * 发起者或任一等待中的成员调用{@link WaveRefreshLayout#finishRefresh()}（包括刷新超时）后，
+ * 所有等待中的成员一起完成刷新，并各自回调{@link WaveRefreshLayout.OnRefreshListener#onLoadData()}。
+ * {@link WaveRefreshLayout#publishProgress(float)}发布的进度同样会分发给所有等待中的成员
+ *
+ * @author Felix
+ * @see WaveRefreshLayout#setRefreshGroup(RefreshGroup)
+ */
+public class RefreshGroup {
+
+    /**
+     * 发起当前共享获取的成员，没有进行中的获取时为null
+     */
+    private WaveRefreshLayout mLeader;
+
+    /**
+     * 正在等待共享获取完成的成员
+     */
+    private final List<WaveRefreshLayout> mWaitingMembers = new ArrayList<>();
+
+    /**
+     * 是否有进行中的共享获取
+     *
+     * @return true表示正在获取，false则相反
+     */
+    public boolean isRefreshing() {
+        return mLeader != null;
+    }
+
+    /**
+     * 获取正在等待共享获取完成的成员数
+     *
+     * @return 成员数
+     */
+    public int getWaitingCount() {
+        return mWaitingMembers.size();
+    }
+
+    /**
+     * 完成进行中的共享获取，所有等待中的成员完成刷新
+     */
+    public void finishRefresh() {
+        if (mLeader == null) return;
+        final List<WaveRefreshLayout> members = new ArrayList<>(mWaitingMembers);
+        mLeader = null;
+        mWaitingMembers.clear();
+        for (WaveRefreshLayout member : members) {
+            member.onGroupRefreshFinished();
+        }
+    }
+
+    /**
+     * 将增量刷新的进度分发给所有等待中的成员
+     *
+     * @param progress 获取进度，取值范围为[0, 1]
+     */
+    public void publishProgress(float progress) {
+        for (WaveRefreshLayout member : new ArrayList<>(mWaitingMembers)) {
+            member.onGroupProgress(progress);
+        }
+    }
+
+    /**
+     * 成员进入刷新时调用，加入等待列表
+     *
+     * @param member 进入刷新的成员
+     * @return true表示该成员发起了新的共享获取，需回调其获取数据；false表示已有获取在进行，只需等待
+     */
+    boolean join(WaveRefreshLayout member) {
+        if (!mWaitingMembers.contains(member)) mWaitingMembers.add(member);
+        if (mLeader != null) return false;
+        mLeader = member;
+        return true;
+    }
+
+    /**
+     * 成员放弃刷新时调用，移出等待列表，共享获取仍会继续
+     *
+     * @param member 离开的成员
+     */
+    void leave(WaveRefreshLayout member) {
+        mWaitingMembers.remove(member);
+    }
+
+    /**
+     * 成员离开刷新组时调用。若离开的是发起者，其获取结果将无法再通知到本组，
+     * 因此由第一个等待中的成员接替发起者并重新获取数据
+     *
+     * @param member 离开的成员
+     */
+    void remove(WaveRefreshLayout member) {
+        mWaitingMembers.remove(member);
+        if (mLeader != member) return;
+        mLeader = null;
+        if (!mWaitingMembers.isEmpty()) {
+            mLeader = mWaitingMembers.get(0);
+            mLeader.onGroupAcquireData();
+        }
+    }
+
+    /**
+     * 成员是否参与了进行中的共享获取
+     *
+     * @param member 成员
+     * @return 该成员为发起者或正在等待时返回true
+     */
+    boolean isParticipating(WaveRefreshLayout member) {
+        return mLeader != null && (mLeader == member || mWaitingMembers.contains(member));
+    }
+}
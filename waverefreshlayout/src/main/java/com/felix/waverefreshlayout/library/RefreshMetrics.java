@@ -0,0 +1,159 @@
+package com.felix.waverefreshlayout.library;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+
+/**
+ * 刷新耗时统计，保留最近若干次完整刷新的各阶段耗时并计算百分位数
+ *
+ * @author Felix
+ * @see RefreshRecord
+ */
+public class RefreshMetrics {
+
+    /**
+     * 默认保留的记录数
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * 阶段类型注解，所修饰变量可取
+     * {@link #PHASE_RELEASE_TO_ACQUIRE}，
+     * {@link #PHASE_ACQUIRE_TO_FINISH}，
+     * {@link #PHASE_FINISH_TO_LOADED}，
+     * {@link #PHASE_TOTAL}之一
+     */
+    @IntDef({PHASE_RELEASE_TO_ACQUIRE, PHASE_ACQUIRE_TO_FINISH, PHASE_FINISH_TO_LOADED, PHASE_TOTAL})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Phase {
+
+    }
+
+    /**
+     * 松手到开始获取数据
+     */
+    public static final int PHASE_RELEASE_TO_ACQUIRE = 0;
+
+    /**
+     * 开始获取数据到完成刷新
+     */
+    public static final int PHASE_ACQUIRE_TO_FINISH = 1;
+
+    /**
+     * 完成刷新到加载数据
+     */
+    public static final int PHASE_FINISH_TO_LOADED = 2;
+
+    /**
+     * 松手到加载数据
+     */
+    public static final int PHASE_TOTAL = 3;
+
+    private static final int PHASE_COUNT = 4;
+
+    /**
+     * 各阶段耗时的环形缓冲
+     */
+    private final long[][] mSamples;
+
+    /**
+     * 百分位计算时使用的临时数组
+     */
+    private final long[] mSortBuffer;
+
+    /**
+     * 当前记录数
+     */
+    private int mCount;
+
+    /**
+     * 下一条记录写入位置
+     */
+    private int mNext;
+
+    /**
+     * 当前保留的记录中超时的次数
+     */
+    private int mTimeoutCount;
+
+    /**
+     * 各记录是否超时
+     */
+    private final boolean[] mTimedOut;
+
+    public RefreshMetrics() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RefreshMetrics(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("容量需大于0");
+        mSamples = new long[PHASE_COUNT][capacity];
+        mSortBuffer = new long[capacity];
+        mTimedOut = new boolean[capacity];
+    }
+
+    /**
+     * 添加一条完整的刷新记录，不完整的记录将被忽略
+     *
+     * @param record 刷新记录
+     */
+    public void add(RefreshRecord record) {
+        if (!record.isComplete()) return;
+        mSamples[PHASE_RELEASE_TO_ACQUIRE][mNext] = record.getReleaseToAcquire();
+        mSamples[PHASE_ACQUIRE_TO_FINISH][mNext] = record.getAcquireToFinish();
+        mSamples[PHASE_FINISH_TO_LOADED][mNext] = record.getFinishToLoaded();
+        mSamples[PHASE_TOTAL][mNext] = record.getTotal();
+        final int capacity = mSortBuffer.length;
+        if (mCount == capacity && mTimedOut[mNext]) mTimeoutCount--;
+        mTimedOut[mNext] = record.isTimedOut();
+        if (record.isTimedOut()) mTimeoutCount++;
+        mNext = (mNext + 1) % capacity;
+        if (mCount < capacity) mCount++;
+    }
+
+    /**
+     * 获取当前保留的记录数
+     *
+     * @return 记录数
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * 获取当前保留的记录中因超时而自动完成的次数
+     *
+     * @return 超时次数
+     */
+    public int getTimeoutCount() {
+        return mTimeoutCount;
+    }
+
+    /**
+     * 计算指定阶段耗时的百分位数
+     *
+     * @param phase      阶段
+     * @param percentile 百分位，取值范围为[0, 100]
+     * @return 毫秒数，无记录时返回{@link RefreshRecord#NOT_RECORDED}
+     */
+    public long getPercentile(@Phase int phase, float percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("百分位需在[0, 100]范围内");
+        if (mCount == 0) return RefreshRecord.NOT_RECORDED;
+        System.arraycopy(mSamples[phase], 0, mSortBuffer, 0, mCount);
+        Arrays.sort(mSortBuffer, 0, mCount);
+        final int index = (int) Math.ceil(percentile / 100f * mCount) - 1;
+        return mSortBuffer[Math.max(0, index)];
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public void clear() {
+        mCount = 0;
+        mNext = 0;
+        mTimeoutCount = 0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.felix.waverefreshlayout.library;
+
+/**
+ * 单次刷新的耗时记录，时间戳均取自{@link android.os.SystemClock#uptimeMillis()}
+ *
+ * @author Felix
+ * @see RefreshMetrics
+ */
+public class RefreshRecord {
+
+    /**
+     * 未记录的时间戳
+     */
+    public static final long NOT_RECORDED = -1;
+
+    /**
+     * 松手触发刷新的时间
+     */
+    long releaseTime = NOT_RECORDED;
+
+    /**
+     * 回调{@link WaveRefreshLayout.OnRefreshListener#onAcquireData()}的时间
+     */
+    long acquireTime = NOT_RECORDED;
+
+    /**
+     * 调用{@link WaveRefreshLayout#finishRefresh()}的时间
+     */
+    long finishTime = NOT_RECORDED;
+
+    /**
+     * 回调{@link WaveRefreshLayout.OnRefreshListener#onLoadData()}的时间
+     */
+    long loadedTime = NOT_RECORDED;
+
+    /**
+     * 是否因超时而自动完成
+     */
+    boolean timedOut;
+
+    public long getReleaseTime() {
+        return releaseTime;
+    }
+
+    public long getAcquireTime() {
+        return acquireTime;
+    }
+
+    public long getFinishTime() {
+        return finishTime;
+    }
+
+    public long getLoadedTime() {
+        return loadedTime;
+    }
+
+    /**
+     * 是否因超时而自动完成刷新
+     *
+     * @return true表示超时，false则相反
+     * @see WaveRefreshLayout#setRefreshTimeout(long)
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * 从松手到开始获取数据的耗时，主要为回弹到刷新高度的动画时间
+     *
+     * @return 毫秒数，未记录时为{@link #NOT_RECORDED}
+     */
+    public long getReleaseToAcquire() {
+        return duration(releaseTime, acquireTime);
+    }
+
+    /**
+     * 从开始获取数据到调用完成刷新的耗时，即应用自身获取数据的时间
+     *
+     * @return 毫秒数，未记录时为{@link #NOT_RECORDED}
+     */
+    public long getAcquireToFinish() {
+        return duration(acquireTime, finishTime);
+    }
+
+    /**
+     * 从完成刷新到加载数据的耗时，主要为回弹到初始位置的动画时间
+     *
+     * @return 毫秒数，未记录时为{@link #NOT_RECORDED}
+     */
+    public long getFinishToLoaded() {
+        return duration(finishTime, loadedTime);
+    }
+
+    /**
+     * 从松手到加载数据的总耗时
+     *
+     * @return 毫秒数，未记录时为{@link #NOT_RECORDED}
+     */
+    public long getTotal() {
+        return duration(releaseTime, loadedTime);
+    }
+
+    /**
+     * 各阶段是否均已记录
+     *
+     * @return true表示完整，false则相反
+     */
+    public boolean isComplete() {
+        return releaseTime != NOT_RECORDED && acquireTime != NOT_RECORDED
+                && finishTime != NOT_RECORDED && loadedTime != NOT_RECORDED;
+    }
+
+    private static long duration(long from, long to) {
+        if (from == NOT_RECORDED || to == NOT_RECORDED) return NOT_RECORDED;
+        return to - from;
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshRecord{releaseToAcquire=" + getReleaseToAcquire()
+                + ", acquireToFinish=" + getAcquireToFinish()
+                + ", finishToLoaded=" + getFinishToLoaded()
+                + ", timedOut=" + timedOut + "}";
+    }
+}
@@ -0,0 +1,114 @@
+package com.felix.waverefreshlayout.library;
+
+/**
+ * 回弹使用的临界阻尼弹簧，初始速度取自松手时的速度，位置不会越过目标
+ *
+ * @author Felix
+ */
+final class RestoreSpring {
+
+    /**
+     * 临界阻尼弹簧衰减到初始距离约1%所需的时间与固有角频率倒数的比值
+     */
+    private static final float SETTLE_FACTOR = 6.6f;
+
+    /**
+     * 单次积分的最大时间步长，保证数值稳定
+     */
+    private static final float MAX_STEP = 0.004f;
+
+    /**
+     * 静止判定的位置阈值
+     */
+    private static final float POSITION_THRESHOLD = 0.5f;
+
+    /**
+     * 静止判定的速度阈值，单位为像素每秒
+     */
+    private static final float VELOCITY_THRESHOLD = 10f;
+
+    /**
+     * 固有角频率
+     */
+    private float mOmega;
+
+    private float mPosition;
+
+    private float mVelocity;
+
+    private float mTarget;
+
+    private boolean mIsRunning;
+
+    /**
+     * @param settleDuration 从静止开始回弹到基本停止所需的毫秒数
+     */
+    RestoreSpring(long settleDuration) {
+        setSettleDuration(settleDuration);
+    }
+
+    void setSettleDuration(long settleDuration) {
+        mOmega = SETTLE_FACTOR * 1000f / Math.max(1, settleDuration);
+    }
+
+    /**
+     * 开始回弹
+     *
+     * @param position 当前位置
+     * @param velocity 当前速度，单位为像素每秒
+     * @param target   目标位置
+     */
+    void start(float position, float velocity, float target) {
+        mPosition = position;
+        mVelocity = velocity;
+        mTarget = target;
+        mIsRunning = true;
+    }
+
+    void cancel() {
+        mIsRunning = false;
+    }
+
+    /**
+     * 推进指定时间
+     *
+     * @param dt 经过的秒数
+     * @return 是否仍在运动
+     */
+    boolean advance(float dt) {
+        if (!mIsRunning) return false;
+        final float k = mOmega * mOmega;
+        final float c = 2 * mOmega;
+        final float side = Math.signum(mPosition - mTarget);
+        while (dt > 0) {
+            final float step = Math.min(dt, MAX_STEP);
+            final float displacement = mPosition - mTarget;
+            mVelocity += (-k * displacement - c * mVelocity) * step;
+            mPosition += mVelocity * step;
+            dt -= step;
+            if (Math.signum(mPosition - mTarget) != side) {//不越过目标
+                mPosition = mTarget;
+                mVelocity = 0;
+                break;
+            }
+        }
+        if (Math.abs(mPosition - mTarget) < POSITION_THRESHOLD && Math.abs(mVelocity) < VELOCITY_THRESHOLD) {
+            mPosition = mTarget;
+            mVelocity = 0;
+            mIsRunning = false;
+        }
+        return mIsRunning;
+    }
+
+    boolean isRunning() {
+        return mIsRunning;
+    }
+
+    float getPosition() {
+        return mPosition;
+    }
+
+    float getTarget() {
+        return mTarget;
+    }
+}
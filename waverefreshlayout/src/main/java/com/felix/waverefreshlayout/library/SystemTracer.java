@@ -0,0 +1,25 @@
+package com.felix.waverefreshlayout.library;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * 将区段输出到{@link Trace}的追踪器，可在systrace/Perfetto中与应用自身的区段一同查看，
+ * 低于{@link Build.VERSION_CODES#JELLY_BEAN_MR2}的系统上不做任何操作
+ *
+ * @author Felix
+ */
+public class SystemTracer implements WaveTracer {
+
+    private static final boolean IS_SUPPORTED = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+
+    @Override
+    public void beginSection(String name) {
+        if (IS_SUPPORTED) Trace.beginSection(name);
+    }
+
+    @Override
+    public void endSection() {
+        if (IS_SUPPORTED) Trace.endSection();
+    }
+}
@@ -0,0 +1,130 @@
+package com.felix.waverefreshlayout.library;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * 进程内共享的动画节拍器，所有可见的{@link WaveRefreshLayout}共用同一个{@link Choreographer}帧回调，
+ * 每帧按经过的时间计算统一的步数分发给订阅者，最后一个订阅者离开后停止回调，仅可在主线程中使用
+ *
+ * @author Felix
+ */
+final class WaveAnimationTicker implements Choreographer.FrameCallback {
+
+    /**
+     * 一步对应的时间
+     */
+    static final long STEP_INTERVAL_NANOS = 16000000L;
+
+    /**
+     * 单帧最多分发的步数，避免长时间卡顿后动画跳跃
+     */
+    private static final int MAX_STEPS_PER_FRAME = 4;
+
+    private static WaveAnimationTicker sInstance;
+
+    /**
+     * 订阅者
+     */
+    private final ArrayList<Subscriber> mSubscribers = new ArrayList<>();
+
+    /**
+     * 分发时使用的订阅者副本，允许在回调中订阅或取消订阅
+     */
+    private final ArrayList<Subscriber> mDispatching = new ArrayList<>();
+
+    /**
+     * 是否已注册尚未执行的帧回调
+     */
+    private boolean mIsFramePending;
+
+    /**
+     * 上一帧的时间
+     */
+    private long mLastFrameNanos;
+
+    /**
+     * 不足一步的剩余时间
+     */
+    private long mRemainderNanos;
+
+    private WaveAnimationTicker() {
+    }
+
+    static WaveAnimationTicker getInstance() {
+        if (sInstance == null) sInstance = new WaveAnimationTicker();
+        return sInstance;
+    }
+
+    /**
+     * 订阅节拍，重复订阅无效
+     *
+     * @param subscriber 订阅者
+     */
+    void subscribe(Subscriber subscriber) {
+        if (mSubscribers.contains(subscriber)) return;
+        if (mSubscribers.isEmpty()) {
+            mLastFrameNanos = 0;
+            mRemainderNanos = 0;
+        }
+        mSubscribers.add(subscriber);
+        postFrame();
+    }
+
+    /**
+     * 取消订阅，最后一个订阅者离开时停止帧回调
+     *
+     * @param subscriber 订阅者
+     */
+    void unsubscribe(Subscriber subscriber) {
+        mSubscribers.remove(subscriber);
+        if (mSubscribers.isEmpty() && mIsFramePending) {
+            mIsFramePending = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    /**
+     * 注册下一帧回调
+     */
+    private void postFrame() {
+        if (!mIsFramePending) {
+            mIsFramePending = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mIsFramePending = false;
+        int steps = 1;
+        if (mLastFrameNanos != 0) {
+            final long elapsed = frameTimeNanos - mLastFrameNanos + mRemainderNanos;
+            steps = (int) Math.min(MAX_STEPS_PER_FRAME, elapsed / STEP_INTERVAL_NANOS);
+            mRemainderNanos = steps == MAX_STEPS_PER_FRAME ? 0 : elapsed % STEP_INTERVAL_NANOS;
+        }
+        mLastFrameNanos = frameTimeNanos;
+        if (steps > 0) {
+            mDispatching.addAll(mSubscribers);
+            for (int i = 0, size = mDispatching.size(); i < size; i++) {
+                mDispatching.get(i).onTick(steps);
+            }
+            mDispatching.clear();
+        }
+        if (!mSubscribers.isEmpty()) postFrame();
+    }
+
+    /**
+     * 节拍订阅者
+     */
+    interface Subscriber {
+
+        /**
+         * 节拍回调
+         *
+         * @param steps 距上次回调经过的步数，每步对应{@link #STEP_INTERVAL_NANOS}
+         */
+        void onTick(int steps);
+    }
+}
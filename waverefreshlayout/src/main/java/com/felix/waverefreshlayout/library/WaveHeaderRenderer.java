@@ -0,0 +1,628 @@
+package com.felix.waverefreshlayout.library;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PointF;
+import android.os.Build;
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * 波浪头部绘制器，绘制背景、波浪、太阳及云朵并保存它们的动画参数，
+ * 由{@link WaveRefreshLayout}和{@link WaveRefreshDecoration}共用。
+ * 绘制坐标以头部所在内容的顶部为原点，偏移量与{@link WaveRefreshLayout}的scrollY含义一致，负值表示下拉
+ *
+ * @author Felix
+ */
+final class WaveHeaderRenderer {
+
+    /**
+     * 最小波浪高度
+     */
+    static final int MIN_WAVE_HEIGHT = 56;
+
+    /**
+     * 初始的水波基线偏移
+     */
+    static final int WAVE_BASELINE_OFFSET = 36;
+
+    /**
+     * 太阳中心偏移
+     */
+    static final int SUN_CENTER_OFFSET = 108;
+
+    /**
+     * 刷新需要达到的最小高度
+     */
+    static final int MIN_REFRESH_HEIGHT = 200;
+
+    /**
+     * 后方云朵的透明度
+     */
+    private static final int CLOUD_ALPHA_BACK = 200;
+
+    /**
+     * 刷新进度为1时水波基线上升的高度
+     */
+    private static final int MAX_PROGRESS_RISE = 64;
+
+    /**
+     * 每步显示进度向目标进度靠近的比例
+     */
+    private static final float PROGRESS_EASING = 0.15f;
+
+    /**
+     * 背景与深色波浪接缝处的重叠高度，避免抗锯齿边缘透出底色
+     */
+    private static final int SEAM_OVERLAP = 1;
+
+    /**
+     * 线条类型注解，所修饰的变量仅可取{@link #TYPE_BACKGROUND},{@link #TYPE_DARK_WAVE}和{@link #TYPE_LIGHT_WAVE}中的一种
+     */
+    @IntDef({TYPE_BACKGROUND, TYPE_DARK_WAVE, TYPE_LIGHT_WAVE})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface LineType {
+
+    }
+
+    /**
+     * 波浪背景边界线类型曲线
+     */
+    private static final int TYPE_BACKGROUND = 0;
+
+    /**
+     * 深色波浪边界类型曲线
+     */
+    private static final int TYPE_DARK_WAVE = 1;
+
+    /**
+     * 浅色波浪边界类型曲线
+     */
+    private static final int TYPE_LIGHT_WAVE = 2;
+
+    /**
+     * 波浪水平偏移
+     */
+    float horizontalOffset;
+
+    /**
+     * 太阳旋转角度
+     */
+    float sunRotateDegree;
+
+    /**
+     * 云位置横坐标
+     */
+    int cloudX;
+
+    /**
+     * 波峰高度
+     */
+    float peakHeight;
+
+    /**
+     * 头部当前显示的刷新进度，逐步向目标进度靠近
+     */
+    float displayedProgress;
+
+    private final Resources mResources;
+
+    /**
+     * 波浪样式
+     */
+    private WaveStyle mStyle;
+
+    /**
+     * 波浪绘制方式
+     */
+    @WaveRefreshLayout.RenderMode
+    private int mRenderMode = WaveRefreshLayout.RENDER_MODE_PATH;
+
+    /**
+     * 性能追踪器
+     */
+    private WaveTracer mTracer = WaveTracer.NONE;
+
+    /**
+     * 深色波浪画笔
+     */
+    private final Paint mWavePaintDark;
+
+    /**
+     * 浅色波浪画笔
+     */
+    private final Paint mWavePaintLight;
+
+    /**
+     * 背景画笔
+     */
+    private final Paint mBackgroundPaint;
+
+    /**
+     * 太阳画笔
+     */
+    private final Paint mSunPaint;
+
+    /**
+     * 前方云朵画笔
+     */
+    private final Paint mCloudPaint;
+
+    /**
+     * 后方云朵画笔
+     */
+    private final Paint mCloudPaintBack;
+
+    /**
+     * 前方云朵镜像绘制使用的矩阵
+     */
+    private final Matrix mCloudMatrix = new Matrix();
+
+    /**
+     * 浅色波浪路径
+     */
+    private Path mLightWavePath;
+
+    /**
+     * 深色波浪路径
+     */
+    private Path mDarkWavePath;
+
+    /**
+     * 背景路径
+     */
+    private Path mBackgroundPath;
+
+    /**
+     * 背景网格
+     */
+    private WaveMesh mBackgroundMesh;
+
+    /**
+     * 深色波浪网格
+     */
+    private WaveMesh mDarkWaveMesh;
+
+    /**
+     * 浅色波浪网格
+     */
+    private WaveMesh mLightWaveMesh;
+
+    /**
+     * 贝塞尔曲线控制点
+     *
+     * @see #addWaveLineToPath(Path, int)
+     */
+    private final PointF mCtrl = new PointF();
+
+    /**
+     * 贝塞尔曲线目标点
+     *
+     * @see #addWaveLineToPath(Path, int)
+     */
+    private final PointF mDst = new PointF();
+
+    /**
+     * 当前绘制的宽度
+     */
+    private int mWidth;
+
+    /**
+     * 当前绘制的偏移
+     */
+    private int mOffset;
+
+    /**
+     * 当前绘制的头部底坐标
+     */
+    private int mHeaderBottom;
+
+    WaveHeaderRenderer(Resources res, WaveStyle style) {
+        mResources = res;
+        mStyle = style;
+        mWavePaintLight = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mWavePaintLight.setStyle(Paint.Style.FILL_AND_STROKE);
+        mWavePaintDark = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mWavePaintDark.setStyle(Paint.Style.FILL_AND_STROKE);
+        mBackgroundPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mBackgroundPaint.setStyle(Paint.Style.FILL_AND_STROKE);
+        mSunPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mSunPaint.setStyle(Paint.Style.FILL);
+        mCloudPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+        mCloudPaintBack = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+        updatePaints();
+        peakHeight = style.peakHeight;
+    }
+
+    WaveStyle getStyle() {
+        return mStyle;
+    }
+
+    /**
+     * 设置样式，更新画笔并丢弃依赖旧尺寸的网格
+     *
+     * @param style 波浪样式
+     */
+    void setStyle(WaveStyle style) {
+        mStyle = style;
+        updatePaints();
+        mBackgroundMesh = null;
+        mDarkWaveMesh = null;
+        mLightWaveMesh = null;
+    }
+
+    @WaveRefreshLayout.RenderMode
+    int getRenderMode() {
+        return mRenderMode;
+    }
+
+    void setRenderMode(@WaveRefreshLayout.RenderMode int mode) {
+        mRenderMode = mode;
+    }
+
+    void setTracer(WaveTracer tracer) {
+        mTracer = tracer;
+    }
+
+    /**
+     * 按样式颜色更新所有画笔，后方云朵在云朵颜色的基础上降低透明度
+     */
+    private void updatePaints() {
+        mWavePaintLight.setColor(mStyle.waveColorLight);
+        mWavePaintLight.setAlpha(128);
+        mWavePaintDark.setColor(mStyle.waveColorDark);
+        mBackgroundPaint.setColor(mStyle.backgroundColor);
+        mSunPaint.setColor(mStyle.sunColor);
+        final int alpha = Color.alpha(mStyle.cloudColor);
+        mCloudPaint.setColor(mStyle.cloudColor);
+        mCloudPaintBack.setColor(mStyle.cloudColor);
+        mCloudPaintBack.setAlpha(alpha * CLOUD_ALPHA_BACK / 255);
+    }
+
+    /**
+     * 释放样式的预计算资源、波浪路径及网格，它们会在下一次绘制时按需重建
+     */
+    void releaseCaches() {
+        mStyle.trimArtifacts();
+        mBackgroundPath = null;
+        mDarkWavePath = null;
+        mLightWavePath = null;
+        mBackgroundMesh = null;
+        mDarkWaveMesh = null;
+        mLightWaveMesh = null;
+    }
+
+    /**
+     * 获取头部在未下拉时的高度
+     *
+     * @return 高度
+     */
+    int getHeaderHeight() {
+        return WAVE_BASELINE_OFFSET + mStyle.peakHeight + MIN_WAVE_HEIGHT;
+    }
+
+    /**
+     * 按偏移更新波峰高度，下拉越多波峰越高
+     *
+     * @param offset 偏移
+     */
+    void updatePeakHeight(int offset) {
+        peakHeight = mStyle.peakHeight - offset / 16f;
+    }
+
+    /**
+     * 推进动画，波浪水平移动，显示进度向目标进度靠近，刷新时太阳旋转、云朵移动
+     *
+     * @param steps          经过的步数
+     * @param isRefreshing   是否正在刷新
+     * @param targetProgress 目标刷新进度
+     * @param width          绘制宽度
+     */
+    void advance(int steps, boolean isRefreshing, float targetProgress, int width) {
+        horizontalOffset -= steps;
+        horizontalOffset %= (mStyle.waveWidth * 2);
+        if (displayedProgress != targetProgress) {
+            final float delta = targetProgress - displayedProgress;
+            displayedProgress += delta * Math.min(1, PROGRESS_EASING * steps);
+            if (Math.abs(delta) < 0.001f) displayedProgress = targetProgress;
+        }
+        if (isRefreshing) {
+            sunRotateDegree += 5 * steps;
+            cloudX += 2 * steps;
+            final int distance = width + mStyle.cloudWidth;
+            cloudX %= distance;
+        }
+    }
+
+    /**
+     * 按偏移计算状态
+     *
+     * @param offset       偏移
+     * @param headerBottom 头部底坐标
+     * @return {@link WaveRefreshLayout.State}中的一种
+     */
+    @WaveRefreshLayout.State
+    int computeState(int offset, int headerBottom) {
+        final int showSunY = (int) (WAVE_BASELINE_OFFSET + peakHeight + mStyle.sunRadius + mStyle.sunshineLength
+                - SUN_CENTER_OFFSET);
+        if (offset <= -MIN_REFRESH_HEIGHT) {
+            return WaveRefreshLayout.STATE_REFRESHABLE;
+        } else if (offset < showSunY) {
+            return WaveRefreshLayout.STATE_SHOW_SUN;
+        } else if (offset < 0) {
+            return WaveRefreshLayout.STATE_PULL_TO_REFRESH;
+        } else if (offset < WAVE_BASELINE_OFFSET + peakHeight) {
+            return WaveRefreshLayout.STATE_NORMAL;
+        } else if (offset < headerBottom) {
+            return WaveRefreshLayout.STATE_WAVE_HIDE;
+        } else {
+            return WaveRefreshLayout.STATE_HEADER_HIDE;
+        }
+    }
+
+    /**
+     * 绘制头部，仅绘制可见部分
+     *
+     * @param canvas       画布，原点为头部所在内容的顶部
+     * @param width        绘制宽度
+     * @param height       可见区域高度
+     * @param offset       偏移，可见区域顶部在内容中的纵坐标
+     * @param headerBottom 头部底坐标
+     * @param state        当前状态
+     * @param isRefreshing 是否正在刷新，刷新时绘制云朵
+     */
+    void draw(Canvas canvas, int width, int height, int offset, int headerBottom,
+              @WaveRefreshLayout.State int state, boolean isRefreshing) {
+        mTracer.beginSection(WaveTracer.SECTION_DRAW);
+        try {
+            final int visibleBottom = Math.min(headerBottom, offset + height);
+            if (state <= WaveRefreshLayout.STATE_HEADER_HIDE || visibleBottom <= offset) return;
+            mWidth = width;
+            mOffset = offset;
+            mHeaderBottom = headerBottom;
+            canvas.save();
+            canvas.clipRect(0, offset, width, visibleBottom);
+            if (state > WaveRefreshLayout.STATE_WAVE_HIDE) drawBackground(canvas);
+            if (isRefreshing) drawCloud(cloudX, offset + SUN_CENTER_OFFSET - 56, false, canvas);
+            if (state >= WaveRefreshLayout.STATE_SHOW_SUN) drawSun(canvas);
+            if (isRefreshing) drawCloud(cloudX, offset + SUN_CENTER_OFFSET - 16, true, canvas);
+            drawDarkWave(canvas);
+            if (state > WaveRefreshLayout.STATE_WAVE_HIDE) drawLightWave(canvas);
+            canvas.restore();
+        } finally {
+            mTracer.endSection();
+        }
+    }
+
+    /**
+     * 绘制背景
+     *
+     * @param canvas 画布
+     */
+    private void drawBackground(Canvas canvas) {
+        canvas.save();
+        canvas.translate(horizontalOffset, 0);
+        if (isMeshRendering(canvas)) {
+            final int lowerRow = isDarkWaveOpaque() ? WaveMesh.ROW_DARK_WAVE : WaveMesh.ROW_BACKGROUND;
+            if (mBackgroundMesh == null || mBackgroundMesh.getLowerRow() != lowerRow)
+                mBackgroundMesh = new WaveMesh(WaveMesh.ROW_EDGE, lowerRow);
+            updateWaveMesh(mBackgroundMesh, mOffset, getWaveBaseline());
+            mBackgroundMesh.draw(canvas, mBackgroundPaint);
+        } else {
+            updateBackgroundPath();
+            canvas.drawPath(mBackgroundPath, mBackgroundPaint);
+        }
+        canvas.restore();
+    }
+
+    /**
+     * 绘制浅色波浪
+     *
+     * @param canvas 画布
+     */
+    private void drawLightWave(Canvas canvas) {
+        canvas.save();
+        canvas.translate(horizontalOffset, 0);
+        if (isMeshRendering(canvas)) {
+            if (mLightWaveMesh == null) mLightWaveMesh = new WaveMesh(WaveMesh.ROW_LIGHT_WAVE, WaveMesh.ROW_DARK_WAVE);
+            final float baseline = getWaveBaseline();
+            updateWaveMesh(mLightWaveMesh, baseline, baseline);
+            mLightWaveMesh.draw(canvas, mWavePaintLight);
+        } else {
+            updateLightWavePath();
+            canvas.drawPath(mLightWavePath, mWavePaintLight);
+        }
+        canvas.restore();
+    }
+
+    /**
+     * 绘制深色波浪
+     *
+     * @param canvas 画布
+     */
+    private void drawDarkWave(Canvas canvas) {
+        canvas.save();
+        canvas.translate(horizontalOffset, 0);
+        if (isMeshRendering(canvas)) {
+            if (mDarkWaveMesh == null) mDarkWaveMesh = new WaveMesh(WaveMesh.ROW_DARK_WAVE, WaveMesh.ROW_EDGE);
+            updateWaveMesh(mDarkWaveMesh, getWaveBaseline(), mHeaderBottom);
+            mDarkWaveMesh.draw(canvas, mWavePaintDark);
+        } else {
+            updateDarkWavePath();
+            canvas.drawPath(mDarkWavePath, mWavePaintDark);
+        }
+        canvas.restore();
+    }
+
+    /**
+     * 绘制太阳
+     *
+     * @param canvas 画布
+     */
+    private void drawSun(Canvas canvas) {
+        canvas.save();
+        canvas.translate(mWidth / 2, mOffset + SUN_CENTER_OFFSET);
+        canvas.rotate(sunRotateDegree, 0, 0);
+        mTracer.beginSection(WaveTracer.SECTION_SUN_PATH);
+        final Path sunPath = mStyle.getSunPath();
+        mTracer.endSection();
+        canvas.drawPath(sunPath, mSunPaint);
+        canvas.restore();
+    }
+
+    /**
+     * 绘制云朵，前方云朵为后方云朵的水平镜像
+     *
+     * @param x      云朵横坐标
+     * @param y      云朵纵坐标
+     * @param isRtl  是否为从右至左，即前方云朵
+     * @param canvas 画布
+     */
+    private void drawCloud(int x, int y, boolean isRtl, Canvas canvas) {
+        final Bitmap cloud = mStyle.getCloudBitmap(mResources);
+        if (isRtl) {
+            mCloudMatrix.setScale(-1, 1);
+            mCloudMatrix.postTranslate(mWidth - x, y);
+            canvas.drawBitmap(cloud, mCloudMatrix, mCloudPaint);
+        } else {
+            canvas.drawBitmap(cloud, x, y, mCloudPaintBack);
+        }
+    }
+
+    /**
+     * 深色波浪是否不透明，不透明时背景无需绘制被深色波浪覆盖的部分
+     *
+     * @return true表示不透明，false则相反
+     */
+    private boolean isDarkWaveOpaque() {
+        return Color.alpha(mStyle.waveColorDark) == 0xFF;
+    }
+
+    /**
+     * 是否使用网格绘制波浪
+     *
+     * @param canvas 画布
+     * @return true表示使用{@link WaveMesh}，false表示使用{@link Path}
+     */
+    private boolean isMeshRendering(Canvas canvas) {
+        //硬件加速从Android 10(API 29)开始支持drawVertices
+        return mRenderMode == WaveRefreshLayout.RENDER_MODE_MESH
+                && (!canvas.isHardwareAccelerated() || Build.VERSION.SDK_INT >= 29);
+    }
+
+    /**
+     * 更新波浪网格的尺寸及边界
+     *
+     * @param mesh      波浪网格
+     * @param upperBase 上边界基线
+     * @param lowerBase 下边界基线
+     */
+    private void updateWaveMesh(WaveMesh mesh, float upperBase, float lowerBase) {
+        mTracer.beginSection(WaveTracer.SECTION_WAVE_MESH);
+        mesh.setSize(mWidth, mStyle.waveWidth);
+        mesh.update(upperBase, lowerBase, peakHeight);
+        mTracer.endSection();
+    }
+
+    /**
+     * 更新背景路径
+     */
+    private void updateBackgroundPath() {
+        mTracer.beginSection(WaveTracer.SECTION_BACKGROUND_PATH);
+        if (mBackgroundPath == null)
+            mBackgroundPath = new Path();
+        else mBackgroundPath.reset();
+        mBackgroundPath.moveTo(0, mOffset);
+        if (isDarkWaveOpaque()) {//深色波浪不透明时背景只需填充到深色波浪边界
+            final float bottom = getWaveBaseline() + SEAM_OVERLAP;
+            mBackgroundPath.rLineTo(0, bottom - mOffset);
+            addWaveLineToPath(mBackgroundPath, TYPE_DARK_WAVE);
+            mBackgroundPath.rLineTo(0, mOffset - bottom);
+        } else {
+            final float baseline = getWaveBaseline();
+            mBackgroundPath.rLineTo(0, baseline - mOffset);
+            addWaveLineToPath(mBackgroundPath, TYPE_BACKGROUND);
+            mBackgroundPath.rLineTo(0, mOffset - baseline);
+        }
+        mBackgroundPath.lineTo(0, mOffset);
+        mBackgroundPath.close();
+        mTracer.endSection();
+    }
+
+    /**
+     * 更新深色波浪路径
+     */
+    private void updateDarkWavePath() {
+        mTracer.beginSection(WaveTracer.SECTION_DARK_WAVE_PATH);
+        if (mDarkWavePath == null) mDarkWavePath = new Path();
+        else mDarkWavePath.reset();
+        mDarkWavePath.moveTo(0, mHeaderBottom);
+        final float baseline = getWaveBaseline();
+        mDarkWavePath.lineTo(0, baseline);
+        addWaveLineToPath(mDarkWavePath, TYPE_DARK_WAVE);
+        mDarkWavePath.rLineTo(0, mHeaderBottom - baseline);
+        mDarkWavePath.lineTo(0, mHeaderBottom);
+        mDarkWavePath.close();
+        mTracer.endSection();
+    }
+
+    /**
+     * 更新浅色波浪路径
+     */
+    private void updateLightWavePath() {
+        mTracer.beginSection(WaveTracer.SECTION_LIGHT_WAVE_PATH);
+        if (mLightWavePath == null) mLightWavePath = new Path();
+        else mLightWavePath.reset();
+        final float baseline = getWaveBaseline();
+        mLightWavePath.moveTo(0, baseline);
+        addWaveLineToPath(mLightWavePath, TYPE_LIGHT_WAVE);
+        mLightWavePath.moveTo(0, baseline);
+        addWaveLineToPath(mLightWavePath, TYPE_DARK_WAVE);
+        mLightWavePath.close();
+        mTracer.endSection();
+    }
+
+    /**
+     * 获取水波基线纵坐标，增量刷新时随进度上升
+     *
+     * @return 基线纵坐标
+     */
+    float getWaveBaseline() {
+        return WAVE_BASELINE_OFFSET - displayedProgress * MAX_PROGRESS_RISE;
+    }
+
+    /**
+     * 在制定路径上添加波浪线
+     *
+     * @param src  需要添加波浪线的路径
+     * @param type 波浪线类型
+     */
+    private void addWaveLineToPath(Path src, @LineType int type) {
+        final int waveWidth = mStyle.waveWidth;
+        final int width = mWidth + 2 * waveWidth;
+        for (int i = 0, j = 0; i < width; i += waveWidth, j++) {
+            mCtrl.x = waveWidth * 0.5f;
+            switch (type) {
+                case TYPE_BACKGROUND:
+                    mCtrl.y = peakHeight;
+                    break;
+                case TYPE_DARK_WAVE:
+                    mCtrl.y = j % 2 == 0 ? -peakHeight : peakHeight;
+                    break;
+                case TYPE_LIGHT_WAVE:
+                    mCtrl.y = j % 2 == 0 ? peakHeight : -peakHeight;
+                    break;
+            }
+            mDst.x = waveWidth;
+            mDst.y = 0;
+            src.rQuadTo(mCtrl.x, mCtrl.y, mDst.x, mDst.y);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.felix.waverefreshlayout.library;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import java.util.ArrayList;
+
+/**
+ * 进程内共享的内存整理监听，所有已添加到窗口的{@link WaveRefreshLayout}共用同一个{@link ComponentCallbacks2}，
+ * 在界面隐藏或内存紧张时通知各控件释放可重建的缓存，最后一个客户端离开后注销，仅可在主线程中使用
+ *
+ * @author Felix
+ */
+final class WaveMemoryTrimmer implements ComponentCallbacks2 {
+
+    private static WaveMemoryTrimmer sInstance;
+
+    /**
+     * 客户端
+     */
+    private final ArrayList<Client> mClients = new ArrayList<>();
+
+    /**
+     * 分发时使用的客户端副本
+     */
+    private final ArrayList<Client> mDispatching = new ArrayList<>();
+
+    /**
+     * 注册回调使用的应用上下文
+     */
+    private Context mContext;
+
+    private WaveMemoryTrimmer() {
+    }
+
+    static WaveMemoryTrimmer getInstance() {
+        if (sInstance == null) sInstance = new WaveMemoryTrimmer();
+        return sInstance;
+    }
+
+    /**
+     * 注册客户端，重复注册无效
+     *
+     * @param context 上下文，使用其应用上下文注册系统回调
+     * @param client  客户端
+     */
+    void register(Context context, Client client) {
+        if (mClients.contains(client)) return;
+        if (mClients.isEmpty()) {
+            mContext = context.getApplicationContext();
+            mContext.registerComponentCallbacks(this);
+        }
+        mClients.add(client);
+    }
+
+    /**
+     * 注销客户端，最后一个客户端离开时注销系统回调
+     *
+     * @param client 客户端
+     */
+    void unregister(Client client) {
+        if (!mClients.remove(client) || !mClients.isEmpty()) return;
+        mContext.unregisterComponentCallbacks(this);
+        mContext = null;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level < TRIM_MEMORY_UI_HIDDEN) return;
+        dispatch(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        dispatch(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    private void dispatch(int level) {
+        mDispatching.addAll(mClients);
+        for (int i = 0, size = mDispatching.size(); i < size; i++) {
+            mDispatching.get(i).onTrimMemory(level);
+        }
+        mDispatching.clear();
+    }
+
+    /**
+     * 内存整理客户端
+     */
+    interface Client {
+
+        /**
+         * 释放可重建的缓存，仅在级别不低于{@link ComponentCallbacks2#TRIM_MEMORY_UI_HIDDEN}时回调
+         *
+         * @param level 整理级别
+         */
+        void onTrimMemory(int level);
+    }
+}
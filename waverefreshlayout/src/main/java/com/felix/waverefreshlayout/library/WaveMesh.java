@@ -0,0 +1,155 @@
+package com.felix.waverefreshlayout.library;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * 波浪网格，将二次贝塞尔波浪线按固定步长采样为三角形带，
+ * 通过{@link Canvas#drawVertices}绘制上下两条边界之间的区域，顶点数组预先分配并复用
+ *
+ * @author Felix
+ */
+final class WaveMesh {
+
+    /**
+     * 直线边界，纵坐标即为基线
+     */
+    static final int ROW_EDGE = -1;
+
+    /**
+     * 背景波浪边界，所有波峰同向
+     */
+    static final int ROW_BACKGROUND = 0;
+
+    /**
+     * 深色波浪边界，偶数段向上
+     */
+    static final int ROW_DARK_WAVE = 1;
+
+    /**
+     * 浅色波浪边界，偶数段向下
+     */
+    static final int ROW_LIGHT_WAVE = 2;
+
+    /**
+     * 每段波浪的采样数
+     */
+    private static final int SAMPLES_PER_WAVE = 16;
+
+    private final int mUpperRow;
+
+    private final int mLowerRow;
+
+    /**
+     * 顶点坐标，每列依次为上边界点和下边界点
+     */
+    private float[] mVerts;
+
+    /**
+     * 每列相对波峰高度的偏移系数，上下边界各一组
+     */
+    private float[] mUpperShape;
+
+    private float[] mLowerShape;
+
+    private int mColumns;
+
+    private int mWidth = -1;
+
+    private int mWaveWidth = -1;
+
+    private float mUpperBase = Float.NaN;
+
+    private float mLowerBase = Float.NaN;
+
+    private float mPeakHeight = Float.NaN;
+
+    /**
+     * @param upperRow 上边界类型
+     * @param lowerRow 下边界类型
+     */
+    WaveMesh(int upperRow, int lowerRow) {
+        mUpperRow = upperRow;
+        mLowerRow = lowerRow;
+    }
+
+    /**
+     * 按控件宽度和波浪宽度重建网格，尺寸未变化时不做任何操作
+     *
+     * @param width     控件宽度
+     * @param waveWidth 单段波浪宽度
+     */
+    void setSize(int width, int waveWidth) {
+        if (width == mWidth && waveWidth == mWaveWidth) return;
+        mWidth = width;
+        mWaveWidth = waveWidth;
+        final int totalWidth = width + 2 * waveWidth;
+        final int waves = (totalWidth + waveWidth - 1) / waveWidth;
+        mColumns = waves * SAMPLES_PER_WAVE + 1;
+        mVerts = new float[mColumns * 4];
+        mUpperShape = new float[mColumns];
+        mLowerShape = new float[mColumns];
+        for (int col = 0; col < mColumns; col++) {
+            final int wave = Math.min(col / SAMPLES_PER_WAVE, waves - 1);
+            final float t = (col - wave * SAMPLES_PER_WAVE) / (float) SAMPLES_PER_WAVE;
+            final float x = (wave + t) * waveWidth;
+            mVerts[col * 4] = x;
+            mVerts[col * 4 + 2] = x;
+            final float curve = 2 * t * (1 - t);
+            mUpperShape[col] = curve * sign(mUpperRow, wave);
+            mLowerShape[col] = curve * sign(mLowerRow, wave);
+        }
+        mUpperBase = Float.NaN;
+        mLowerBase = Float.NaN;
+        mPeakHeight = Float.NaN;
+    }
+
+    /**
+     * 更新边界纵坐标，仅重写发生变化的一侧顶点
+     *
+     * @param upperBase  上边界基线
+     * @param lowerBase  下边界基线
+     * @param peakHeight 波峰控制点高度
+     */
+    void update(float upperBase, float lowerBase, float peakHeight) {
+        final boolean peakChanged = peakHeight != mPeakHeight;
+        if (upperBase != mUpperBase || (peakChanged && mUpperRow != ROW_EDGE)) {
+            writeRow(1, upperBase, mUpperShape, peakHeight);
+            mUpperBase = upperBase;
+        }
+        if (lowerBase != mLowerBase || (peakChanged && mLowerRow != ROW_EDGE)) {
+            writeRow(3, lowerBase, mLowerShape, peakHeight);
+            mLowerBase = lowerBase;
+        }
+        mPeakHeight = peakHeight;
+    }
+
+    int getLowerRow() {
+        return mLowerRow;
+    }
+
+    void draw(Canvas canvas, Paint paint) {
+        canvas.drawVertices(Canvas.VertexMode.TRIANGLE_STRIP, mVerts.length, mVerts, 0,
+                null, 0, null, 0, null, 0, 0, paint);
+    }
+
+    private void writeRow(int offset, float base, float[] shape, float peakHeight) {
+        final float[] verts = mVerts;
+        for (int col = 0; col < mColumns; col++) {
+            verts[col * 4 + offset] = base + shape[col] * peakHeight;
+        }
+    }
+
+    private static float sign(int row, int wave) {
+        switch (row) {
+            case ROW_BACKGROUND:
+                return 1;
+            case ROW_DARK_WAVE:
+                return wave % 2 == 0 ? -1 : 1;
+            case ROW_LIGHT_WAVE:
+                return wave % 2 == 0 ? 1 : -1;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,742 @@
+package com.felix.waverefreshlayout.library;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+/**
+ * 直接附加到{@link RecyclerView}的波浪下拉刷新，无需{@link WaveRefreshLayout}包裹，
+ * 列表保留自身的回收复用及预取。波浪头部作为第一行上方的装饰绘制，随列表滚动；
+ * 列表位于顶部时继续下拉会将所有子控件通过translationY整体下移，露出的头部与{@link WaveRefreshLayout}一致。
+ * <p>
+ * 刷新流程与{@link WaveRefreshLayout}相同：松手时达到刷新高度则回弹到刷新位置并回调
+ * {@link WaveRefreshLayout.OnRefreshListener#onAcquireData()}，调用{@link #finishRefresh()}后弹回并回调
+ * {@link WaveRefreshLayout.OnRefreshListener#onLoadData()}。刷新期间向上推动头部不会放弃刷新，松手后弹回刷新位置。
+ * 支持{@link android.support.v7.widget.LinearLayoutManager}、{@link GridLayoutManager}和
+ * {@link StaggeredGridLayoutManager}的竖直布局，仅可在主线程中使用
+ *
+ * @author Felix
+ * @see #attachToRecyclerView(RecyclerView)
+ */
+public class WaveRefreshDecoration extends RecyclerView.ItemDecoration {
+
+    private static final int INVALID_POINTER = -1;
+
+    private final WaveHeaderRenderer mRenderer;
+
+    private RecyclerView mRecyclerView;
+
+    private final int mTouchSlop;
+
+    /**
+     * 下拉距离，即子控件的translationY，非负
+     */
+    private int mPullDistance;
+
+    /**
+     * 阻尼计算后尚未应用的亚像素下拉距离
+     */
+    private float mPendingDY;
+
+    /**
+     * 当前状态
+     */
+    @WaveRefreshLayout.State
+    private int mState = WaveRefreshLayout.STATE_NORMAL;
+
+    private float mDownY;
+
+    private float mLastY;
+
+    /**
+     * 当前跟踪的触摸点id
+     */
+    private int mActivePointerId = INVALID_POINTER;
+
+    /**
+     * 是否正在由本控件处理下拉
+     */
+    private boolean mIsDragging;
+
+    private VelocityTracker mVelocityTracker;
+
+    /**
+     * 回弹弹簧，位置与{@link WaveRefreshLayout}的scrollY含义一致，为下拉距离的相反数
+     */
+    private final RestoreSpring mRestoreSpring;
+
+    private long mLastRestoreFrameNanos;
+
+    /**
+     * 是否允许刷新功能
+     */
+    private boolean mIsRefreshable = true;
+
+    /**
+     * 是否已回调获取数据且尚未完成刷新
+     */
+    private boolean mIsRefreshing;
+
+    /**
+     * 是否正弹回刷新位置，回弹结束后回调获取数据
+     */
+    private boolean mIsRestoringToRefresh;
+
+    /**
+     * 是否正在完成刷新后的回弹，回弹结束后回调加载数据
+     */
+    private boolean mIsRestoringToLoad;
+
+    private WaveRefreshLayout.OnRefreshListener mOnRefreshListener;
+
+    /**
+     * 是否已订阅共享动画节拍
+     */
+    private boolean mIsTickerSubscribed;
+
+    /**
+     * 拖动、回弹、滚动或刷新期间的环境动画帧率上限
+     */
+    private int mActiveFrameRate = WaveRefreshLayout.DEFAULT_FRAME_RATE;
+
+    /**
+     * 空闲时的环境动画帧率上限，为0时空闲即静止
+     */
+    private int mIdleFrameRate = WaveRefreshLayout.DEFAULT_FRAME_RATE;
+
+    /**
+     * 空闲超过该时间后冻结环境动画，为0时不冻结
+     */
+    private long mIdleFreezeDelay;
+
+    /**
+     * 上次处于活动状态的时间，取自{@link SystemClock#uptimeMillis()}
+     */
+    private long mLastActiveTime;
+
+    /**
+     * 环境动画是否已冻结，冻结时不订阅共享动画节拍
+     */
+    private boolean mIsAnimationFrozen;
+
+    /**
+     * 尚未应用的动画步数，帧率上限低于节拍频率时累积到下一次重绘
+     */
+    private int mPendingSteps;
+
+    public WaveRefreshDecoration(Context context) {
+        this(context, new WaveStyle.Builder().build());
+    }
+
+    public WaveRefreshDecoration(Context context, WaveStyle style) {
+        mRenderer = new WaveHeaderRenderer(context.getResources(), style);
+        mRestoreSpring = new RestoreSpring(style.restoreDuration);
+        mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+    }
+
+    /**
+     * 附加到列表，同时添加装饰、触摸监听及子控件监听，已附加到其它列表时先从原列表移除
+     *
+     * @param recyclerView 竖直方向的列表
+     */
+    public void attachToRecyclerView(RecyclerView recyclerView) {
+        if (mRecyclerView == recyclerView) return;
+        if (mRecyclerView != null) detachFromRecyclerView();
+        mRecyclerView = recyclerView;
+        recyclerView.addItemDecoration(this);
+        recyclerView.addOnItemTouchListener(mItemTouchListener);
+        recyclerView.addOnChildAttachStateChangeListener(mChildAttachListener);
+        recyclerView.addOnAttachStateChangeListener(mAttachListener);
+        wakeAnimation();
+    }
+
+    /**
+     * 从列表移除，恢复子控件位置
+     */
+    public void detachFromRecyclerView() {
+        final RecyclerView recyclerView = mRecyclerView;
+        if (recyclerView == null) return;
+        cancelRestore();
+        setPullDistance(0);
+        recyclerView.removeItemDecoration(this);
+        recyclerView.removeOnItemTouchListener(mItemTouchListener);
+        recyclerView.removeOnChildAttachStateChangeListener(mChildAttachListener);
+        recyclerView.removeOnAttachStateChangeListener(mAttachListener);
+        mRecyclerView = null;
+        updateTickerSubscription();
+        releaseVelocityTracker();
+    }
+
+    @Override
+    public void getItemOffsets(Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
+        final int position = parent.getChildAdapterPosition(view);
+        if (position != RecyclerView.NO_POSITION && isInFirstRow(parent, view, position)) {
+            outRect.top = mRenderer.getHeaderHeight();
+        }
+    }
+
+    @Override
+    public void onDraw(Canvas c, RecyclerView parent, RecyclerView.State state) {
+        updateTickerSubscription();//列表隐藏期间取消了订阅，重新显示后的首次绘制恢复订阅
+        final int offset = getOffset(parent);
+        updateState(offset);
+        if (mState <= WaveRefreshLayout.STATE_HEADER_HIDE) return;
+        final int paddingTop = parent.getPaddingTop();
+        c.save();
+        c.translate(0, paddingTop - offset);
+        mRenderer.draw(c, parent.getWidth(), parent.getHeight() - paddingTop, offset,
+                mRenderer.getHeaderHeight(), mState, mIsRefreshable && mIsRefreshing);
+        c.restore();
+    }
+
+    /**
+     * 获取与{@link WaveRefreshLayout}的scrollY含义一致的偏移，负值表示下拉，头部已滚出时返回{@link Integer#MAX_VALUE}
+     *
+     * @param parent 列表
+     * @return 偏移
+     */
+    private int getOffset(RecyclerView parent) {
+        final RecyclerView.LayoutManager manager = parent.getLayoutManager();
+        if (manager == null) return Integer.MAX_VALUE;
+        final int count = parent.getChildCount();
+        for (int i = 0; i < count; i++) {
+            final View child = parent.getChildAt(i);
+            final int position = parent.getChildAdapterPosition(child);
+            if (position != RecyclerView.NO_POSITION && isInFirstRow(parent, child, position)) {
+                final int headerTop = manager.getDecoratedTop(child) - parent.getPaddingTop();
+                return -headerTop - mPullDistance;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * 子控件是否位于第一行
+     */
+    private static boolean isInFirstRow(RecyclerView parent, View child, int position) {
+        final RecyclerView.LayoutManager manager = parent.getLayoutManager();
+        if (manager instanceof GridLayoutManager) {
+            final GridLayoutManager grid = (GridLayoutManager) manager;
+            return grid.getSpanSizeLookup().getSpanGroupIndex(position, grid.getSpanCount()) == 0;
+        } else if (manager instanceof StaggeredGridLayoutManager) {
+            final StaggeredGridLayoutManager.LayoutParams lp =
+                    (StaggeredGridLayoutManager.LayoutParams) child.getLayoutParams();
+            return lp.isFullSpan() ? position == 0
+                    : position < ((StaggeredGridLayoutManager) manager).getSpanCount();
+        }
+        return position == 0;
+    }
+
+    /**
+     * 按偏移更新波峰高度、太阳角度及状态
+     *
+     * @param offset 偏移
+     */
+    private void updateState(int offset) {
+        if (offset == Integer.MAX_VALUE) {
+            mState = WaveRefreshLayout.STATE_HEADER_HIDE;
+            return;
+        }
+        mRenderer.updatePeakHeight(offset);
+        if (!mIsRefreshing) mRenderer.sunRotateDegree = offset / 3f;
+        mState = mRenderer.computeState(offset, mRenderer.getHeaderHeight());
+    }
+
+    /**
+     * 设置下拉距离，将所有子控件下移相应距离
+     *
+     * @param distance 下拉距离
+     */
+    private void setPullDistance(int distance) {
+        distance = Math.max(0, distance);
+        if (distance == mPullDistance) return;
+        mPullDistance = distance;
+        final RecyclerView recyclerView = mRecyclerView;
+        if (recyclerView == null) return;
+        final int count = recyclerView.getChildCount();
+        for (int i = 0; i < count; i++) {
+            recyclerView.getChildAt(i).setTranslationY(distance);
+        }
+        recyclerView.invalidate();
+    }
+
+    /**
+     * 计算下拉阻尼后的距离，与{@link WaveRefreshLayout}一致
+     *
+     * @param dY 手指移动距离
+     * @return 实际下拉距离
+     */
+    private float applyDamping(float dY) {
+        if (mPullDistance > 0 && dY > 0) dY /= (mPullDistance / 160f + 1);
+        return dY;
+    }
+
+    /**
+     * 列表位于顶部时向下拖动超过触摸阈值，或按在已展开的头部上时接管手势；
+     * 接管后下拉距离回到0时，剩余的拖动交还列表滚动
+     */
+    private final RecyclerView.OnItemTouchListener mItemTouchListener = new RecyclerView.OnItemTouchListener() {
+        @Override
+        public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
+            trackVelocity(e);
+            switch (e.getActionMasked()) {
+                case MotionEvent.ACTION_DOWN:
+                    mActivePointerId = e.getPointerId(0);
+                    wakeAnimation();
+                    mDownY = mLastY = e.getY();
+                    mPendingDY = 0;
+                    mIsDragging = false;
+                    if ((mPullDistance > 0 || mRestoreSpring.isRunning()) && isOnHeader(rv, e.getY())) {
+                        startDragging(rv);
+                    }
+                    break;
+                case MotionEvent.ACTION_POINTER_DOWN: {
+                    final int index = e.getActionIndex();
+                    mActivePointerId = e.getPointerId(index);
+                    mDownY = mLastY = e.getY(index);
+                    break;
+                }
+                case MotionEvent.ACTION_POINTER_UP:
+                    onSecondaryPointerUp(e);
+                    mDownY = mLastY;
+                    break;
+                case MotionEvent.ACTION_MOVE: {
+                    final int index = e.findPointerIndex(mActivePointerId);
+                    if (index < 0) break;
+                    final float y = e.getY(index);
+                    if (mIsRefreshable && y - mDownY > mTouchSlop && !rv.canScrollVertically(-1)) {
+                        mLastY = y;
+                        startDragging(rv);
+                    }
+                    break;
+                }
+                case MotionEvent.ACTION_UP:
+                case MotionEvent.ACTION_CANCEL:
+                    mActivePointerId = INVALID_POINTER;
+                    releaseVelocityTracker();
+                    break;
+            }
+            return mIsDragging;
+        }
+
+        @Override
+        public void onTouchEvent(RecyclerView rv, MotionEvent e) {
+            if (e.getActionMasked() != MotionEvent.ACTION_DOWN) trackVelocity(e);
+            switch (e.getActionMasked()) {
+                case MotionEvent.ACTION_POINTER_DOWN: {
+                    final int index = e.getActionIndex();
+                    mActivePointerId = e.getPointerId(index);
+                    mLastY = e.getY(index);
+                    break;
+                }
+                case MotionEvent.ACTION_POINTER_UP:
+                    onSecondaryPointerUp(e);
+                    break;
+                case MotionEvent.ACTION_MOVE: {
+                    final int index = e.findPointerIndex(mActivePointerId);
+                    if (index < 0) break;
+                    final float y = e.getY(index);
+                    dragBy(rv, y - mLastY);
+                    mLastY = y;
+                    break;
+                }
+                case MotionEvent.ACTION_UP:
+                case MotionEvent.ACTION_CANCEL: {
+                    mVelocityTracker.computeCurrentVelocity(1000);
+                    final float velocityY = mVelocityTracker.getYVelocity(mActivePointerId);
+                    if (mPullDistance > 0) {
+                        onRelease(velocityY);
+                    } else {
+                        if (mIsRestoringToLoad) onRestoreEnd();
+                        if (e.getActionMasked() == MotionEvent.ACTION_UP) rv.fling(0, (int) -velocityY);
+                    }
+                    mIsDragging = false;
+                    mActivePointerId = INVALID_POINTER;
+                    releaseVelocityTracker();
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        }
+    };
+
+    /**
+     * 开始由本控件处理拖动，打断正在进行的回弹
+     */
+    private void startDragging(RecyclerView rv) {
+        mIsDragging = true;
+        cancelRestore();
+        if (rv.getParent() != null) rv.getParent().requestDisallowInterceptTouchEvent(true);
+    }
+
+    /**
+     * 按手指移动距离拖动，列表未回到顶部时先滚动列表，下拉距离回到0后向上的拖动交还列表滚动
+     *
+     * @param rv 列表
+     * @param dY 手指移动距离，向下为正
+     */
+    private void dragBy(RecyclerView rv, float dY) {
+        if (mPullDistance == 0 && (dY < 0 || rv.canScrollVertically(-1))) {
+            mPendingDY = 0;
+            rv.scrollBy(0, Math.round(-dY));
+            return;
+        }
+        mPendingDY += applyDamping(dY);
+        final int step = (int) mPendingDY;
+        mPendingDY -= step;
+        if (step == 0) return;
+        final int distance = mPullDistance + step;
+        setPullDistance(distance);
+        if (distance < 0) rv.scrollBy(0, -distance);
+    }
+
+    /**
+     * 非最后一个手指抬起时调用，若抬起的是当前跟踪的触摸点，则移交给另一个触摸点继续跟踪
+     *
+     * @param event {@link MotionEvent#ACTION_POINTER_UP}事件
+     */
+    private void onSecondaryPointerUp(MotionEvent event) {
+        final int index = event.getActionIndex();
+        if (event.getPointerId(index) == mActivePointerId) {
+            final int newIndex = index == 0 ? 1 : 0;
+            mActivePointerId = event.getPointerId(newIndex);
+            mLastY = event.getY(newIndex);
+            if (mVelocityTracker != null) mVelocityTracker.clear();
+        }
+    }
+
+    /**
+     * 触摸点是否位于可见的头部上
+     *
+     * @param rv 列表
+     * @param y  触摸点纵坐标
+     */
+    private boolean isOnHeader(RecyclerView rv, float y) {
+        final int offset = getOffset(rv);
+        return offset != Integer.MAX_VALUE && y < rv.getPaddingTop() + mRenderer.getHeaderHeight() - offset;
+    }
+
+    private void trackVelocity(MotionEvent event) {
+        if (mVelocityTracker == null) mVelocityTracker = VelocityTracker.obtain();
+        mVelocityTracker.addMovement(event);
+    }
+
+    private void releaseVelocityTracker() {
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+    }
+
+    /**
+     * 松手，达到刷新高度或正在刷新时弹回刷新位置，否则弹回初始位置
+     *
+     * @param velocityY 松手速度，向下为正
+     */
+    private void onRelease(float velocityY) {
+        if (mPullDistance == 0) return;
+        final boolean refresh = mIsRefreshable && !mIsRestoringToLoad
+                && (mIsRefreshing || mPullDistance >= WaveHeaderRenderer.MIN_REFRESH_HEIGHT);
+        mIsRestoringToRefresh = refresh && !mIsRefreshing;
+        startRestore(refresh ? WaveHeaderRenderer.MIN_REFRESH_HEIGHT : 0, -applyDamping(velocityY));
+    }
+
+    /**
+     * 开始回弹
+     *
+     * @param targetDistance 目标下拉距离
+     * @param velocity       初始速度，与弹簧位置同向，单位为像素每秒
+     */
+    private void startRestore(int targetDistance, float velocity) {
+        mRestoreSpring.start(-mPullDistance, velocity, -targetDistance);
+        mLastRestoreFrameNanos = 0;
+        Choreographer.getInstance().removeFrameCallback(mRestoreFrameCallback);
+        Choreographer.getInstance().postFrameCallback(mRestoreFrameCallback);
+    }
+
+    /**
+     * 打断回弹，停留在当前位置，若打断的是完成刷新后的回弹则立即回调加载数据
+     */
+    private void cancelRestore() {
+        if (!mRestoreSpring.isRunning()) return;
+        mRestoreSpring.cancel();
+        Choreographer.getInstance().removeFrameCallback(mRestoreFrameCallback);
+        if (mIsRestoringToLoad) onRestoreEnd();
+        mIsRestoringToRefresh = false;
+    }
+
+    private final Choreographer.FrameCallback mRestoreFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            final float dt = mLastRestoreFrameNanos == 0 ? 0.016f : (frameTimeNanos - mLastRestoreFrameNanos) / 1e9f;
+            mLastRestoreFrameNanos = frameTimeNanos;
+            final boolean isRunning = mRestoreSpring.advance(dt);
+            setPullDistance(-Math.round(mRestoreSpring.getPosition()));
+            if (isRunning) Choreographer.getInstance().postFrameCallback(this);
+            else onRestoreEnd();
+        }
+    };
+
+    /**
+     * 回弹结束，弹回刷新位置时开始获取数据，完成刷新后弹回初始位置时加载数据
+     */
+    private void onRestoreEnd() {
+        if (mIsRestoringToRefresh) {
+            mIsRestoringToRefresh = false;
+            mIsRefreshing = true;
+            mRenderer.displayedProgress = 0;
+            wakeAnimation();
+            if (mOnRefreshListener != null) mOnRefreshListener.onAcquireData();
+        } else if (mIsRestoringToLoad) {
+            mIsRestoringToLoad = false;
+            if (mOnRefreshListener != null) mOnRefreshListener.onLoadData();
+        }
+    }
+
+    /**
+     * 完成刷新，头部弹回后回调{@link WaveRefreshLayout.OnRefreshListener#onLoadData()}
+     */
+    public void finishRefresh() {
+        if (!mIsRefreshing) return;
+        mIsRefreshing = false;
+        mRenderer.cloudX = 0;
+        mIsRestoringToLoad = true;
+        if (!mIsDragging) startRestore(0, 0);
+    }
+
+    /**
+     * 是否正处于获取数据的刷新状态
+     *
+     * @return true表示正在刷新，false则相反
+     */
+    public boolean isRefreshing() {
+        return mIsRefreshing;
+    }
+
+    /**
+     * 获取当前状态
+     *
+     * @return {@link WaveRefreshLayout.State}中的一种
+     */
+    @WaveRefreshLayout.State
+    public int getState() {
+        return mState;
+    }
+
+    public boolean isRefreshable() {
+        return mIsRefreshable;
+    }
+
+    /**
+     * 设置是否允许刷新，不允许时列表位于顶部也不会响应下拉
+     *
+     * @param isRefreshable true表示允许，false则相反
+     */
+    public void setIsRefreshable(boolean isRefreshable) {
+        mIsRefreshable = isRefreshable;
+    }
+
+    public void setOnRefreshListener(WaveRefreshLayout.OnRefreshListener onRefreshListener) {
+        mOnRefreshListener = onRefreshListener;
+    }
+
+    public WaveStyle getWaveStyle() {
+        return mRenderer.getStyle();
+    }
+
+    /**
+     * 设置波浪样式，头部高度变化时重新计算列表第一行的偏移
+     *
+     * @param style 波浪样式
+     */
+    public void setWaveStyle(WaveStyle style) {
+        if (style == null) throw new IllegalArgumentException("样式不能为空");
+        final WaveStyle oldStyle = mRenderer.getStyle();
+        if (oldStyle == style) return;
+        mRenderer.setStyle(style);
+        mRestoreSpring.setSettleDuration(style.restoreDuration);
+        if (mRecyclerView == null) return;
+        if (oldStyle.peakHeight != style.peakHeight) mRecyclerView.invalidateItemDecorations();
+        else mRecyclerView.invalidate();
+    }
+
+    /**
+     * 新添加的子控件沿用当前下拉距离，移除的子控件恢复原位以便复用
+     */
+    private final RecyclerView.OnChildAttachStateChangeListener mChildAttachListener =
+            new RecyclerView.OnChildAttachStateChangeListener() {
+                @Override
+                public void onChildViewAttachedToWindow(View view) {
+                    view.setTranslationY(mPullDistance);
+                }
+
+                @Override
+                public void onChildViewDetachedFromWindow(View view) {
+                    view.setTranslationY(0);
+                }
+            };
+
+    private final View.OnAttachStateChangeListener mAttachListener = new View.OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            wakeAnimation();
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            updateTickerSubscription();
+            cancelRestore();
+        }
+    };
+
+    /**
+     * 附加到已添加到窗口且可见的列表时订阅共享动画节拍，环境动画冻结时不订阅。
+     * 列表没有可见性回调，隐藏时由节拍取消订阅，重新显示后由{@link #onDraw}恢复订阅
+     *
+     * @see WaveAnimationTicker
+     */
+    private void updateTickerSubscription() {
+        final RecyclerView recyclerView = mRecyclerView;
+        final boolean shouldSubscribe = recyclerView != null && !mIsAnimationFrozen
+                && recyclerView.getWindowToken() != null
+                && recyclerView.getWindowVisibility() == View.VISIBLE && recyclerView.isShown();
+        if (shouldSubscribe == mIsTickerSubscribed) return;
+        mIsTickerSubscribed = shouldSubscribe;
+        if (shouldSubscribe) WaveAnimationTicker.getInstance().subscribe(mTickerSubscriber);
+        else WaveAnimationTicker.getInstance().unsubscribe(mTickerSubscriber);
+    }
+
+    /**
+     * 共享动画节拍订阅者，头部可见时按帧率上限驱动波浪、太阳及云朵动画并重绘列表，与{@link WaveRefreshLayout}一致
+     */
+    private final WaveAnimationTicker.Subscriber mTickerSubscriber = new WaveAnimationTicker.Subscriber() {
+        @Override
+        public void onTick(int steps) {
+            updateTickerSubscription();
+            if (!mIsTickerSubscribed) return;
+            final boolean isActive = isAnimationActive();
+            final long now = SystemClock.uptimeMillis();
+            if (isActive) {
+                mLastActiveTime = now;
+            } else if (mIdleFrameRate <= 0 || (mIdleFreezeDelay > 0 && now - mLastActiveTime >= mIdleFreezeDelay)) {
+                freezeAnimation();
+                return;
+            }
+            mPendingSteps += steps;
+            final int frameRate = isActive ? mActiveFrameRate : mIdleFrameRate;
+            final long frameInterval = 1000000000L / Math.max(1, frameRate);
+            final int stepsPerFrame = Math.max(1, Math.round(frameInterval / (float) WaveAnimationTicker.STEP_INTERVAL_NANOS));
+            if (mPendingSteps < stepsPerFrame) return;
+            steps = mPendingSteps;
+            mPendingSteps = 0;
+            if (mState <= WaveRefreshLayout.STATE_WAVE_HIDE) return;
+            mRenderer.advance(steps, mIsRefreshable && mIsRefreshing, 0, mRecyclerView.getWidth());
+            mRecyclerView.invalidate();
+        }
+    };
+
+    /**
+     * 是否处于拖动、回弹、滚动或刷新等活动状态，活动状态使用{@link #mActiveFrameRate}且不会冻结
+     *
+     * @return true表示活动，false表示空闲
+     */
+    private boolean isAnimationActive() {
+        return mIsDragging || mIsRefreshing || mRestoreSpring.isRunning()
+                || (mRecyclerView != null && mRecyclerView.getScrollState() != RecyclerView.SCROLL_STATE_IDLE);
+    }
+
+    /**
+     * 冻结环境动画，停止订阅共享动画节拍，波浪停留在当前相位
+     *
+     * @see #wakeAnimation()
+     */
+    private void freezeAnimation() {
+        mIsAnimationFrozen = true;
+        mPendingSteps = 0;
+        updateTickerSubscription();
+    }
+
+    /**
+     * 唤醒环境动画并重新开始空闲计时，在触摸、附加到列表、列表添加到窗口、开始刷新及修改帧率设置时调用
+     */
+    private void wakeAnimation() {
+        mLastActiveTime = SystemClock.uptimeMillis();
+        mIsAnimationFrozen = false;
+        updateTickerSubscription();
+    }
+
+    /**
+     * 获取活动状态下的环境动画帧率上限
+     *
+     * @return 每秒帧数
+     */
+    public int getActiveFrameRate() {
+        return mActiveFrameRate;
+    }
+
+    /**
+     * 设置拖动、回弹、滚动或刷新期间的环境动画帧率上限，默认为60
+     *
+     * @param frameRate 每秒帧数，必须大于0
+     * @see WaveRefreshLayout#setActiveFrameRate(int)
+     */
+    public void setActiveFrameRate(int frameRate) {
+        if (frameRate <= 0) throw new IllegalArgumentException("帧率必须大于0");
+        mActiveFrameRate = frameRate;
+        wakeAnimation();
+    }
+
+    /**
+     * 获取空闲时的环境动画帧率上限
+     *
+     * @return 每秒帧数，为0时空闲即静止
+     */
+    public int getIdleFrameRate() {
+        return mIdleFrameRate;
+    }
+
+    /**
+     * 设置空闲时的环境动画帧率上限，默认为60，为0时空闲即静止，直到下一次触摸或刷新
+     *
+     * @param frameRate 每秒帧数，不能为负数
+     * @see WaveRefreshLayout#setIdleFrameRate(int)
+     */
+    public void setIdleFrameRate(int frameRate) {
+        if (frameRate < 0) throw new IllegalArgumentException("帧率不能为负数");
+        mIdleFrameRate = frameRate;
+        wakeAnimation();
+    }
+
+    /**
+     * 获取空闲冻结时间
+     *
+     * @return 毫秒数，为0时不冻结
+     */
+    public long getIdleFreezeDelay() {
+        return mIdleFreezeDelay;
+    }
+
+    /**
+     * 设置空闲冻结时间，空闲超过该时间后环境动画停止，直到下一次触摸或刷新
+     *
+     * @param delay 毫秒数，为0时不冻结
+     * @see WaveRefreshLayout#setIdleFreezeDelay(long)
+     */
+    public void setIdleFreezeDelay(long delay) {
+        if (delay < 0) throw new IllegalArgumentException("冻结时间不能为负数");
+        mIdleFreezeDelay = delay;
+        wakeAnimation();
+    }
+}
@@ -1,31 +1,30 @@
 package com.felix.waverefreshlayout.library;
 
-import android.animation.Animator;
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
-import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.PointF;
 import android.graphics.Rect;
 import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.support.annotation.ColorInt;
 import android.support.annotation.IntDef;
 import android.support.annotation.RequiresApi;
+import android.support.annotation.VisibleForTesting;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.animation.DecelerateInterpolator;
 import android.widget.LinearLayout;
 import android.widget.Scroller;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
 
 /**
  * @author Felix
@@ -38,57 +37,68 @@ public class WaveRefreshLayout extends LinearLayout {
     private static final int MESSAGE_LOAD_DATA_FINISH = 1;
 
     /**
-     * 最小波浪高度
-     */
-    private static final int MIN_WAVE_HEIGHT = 56;
-
-    /**
-     * 线条类型注解，所修饰的变量仅可取{@link #TYPE_BACKGROUND},{@link #TYPE_DARK_WAVE}和{@link #TYPE_LIGHT_WAVE}中的一种
+     * 子控件类型注解，修饰变量可取{@link #TYPE_CHILD_NONE},{@link #TYPE_CHILD_HEADER}和{@link #TYPE_CHILD_FOOTER}之一
      */
-    @IntDef({TYPE_BACKGROUND, TYPE_DARK_WAVE, TYPE_LIGHT_WAVE})
+    @IntDef({TYPE_CHILD_NONE, TYPE_CHILD_HEADER, TYPE_CHILD_FOOTER})
     @Retention(RetentionPolicy.SOURCE)
-    public @interface LineType {
+    public @interface ChildType {
 
     }
 
     /**
-     * 波浪背景边界线类型曲线
+     * 子控件类型无，为子控件默认类型
      */
-    private static final int TYPE_BACKGROUND = 0;
+    public static final int TYPE_CHILD_NONE = 0;
 
     /**
-     * 深色波浪边界类型曲线
+     * 子控件类型头部，仅允许有一个
      */
-    private static final int TYPE_DARK_WAVE = 1;
+    public static final int TYPE_CHILD_HEADER = 1;
 
     /**
-     * 浅色波浪边界类型曲线
+     * 子控件类型脚部，仅允许有一个
      */
-    private static final int TYPE_LIGHT_WAVE = 2;
+    public static final int TYPE_CHILD_FOOTER = 2;
 
     /**
-     * 子控件类型注解，修饰变量可取{@link #TYPE_CHILD_NONE},{@link #TYPE_CHILD_HEADER}和{@link #TYPE_CHILD_FOOTER}之一
+     * 波浪绘制方式注解，所修饰变量可取{@link #RENDER_MODE_PATH}和{@link #RENDER_MODE_MESH}之一
      */
-    @IntDef({TYPE_CHILD_NONE, TYPE_CHILD_HEADER, TYPE_CHILD_FOOTER})
+    @IntDef({RENDER_MODE_PATH, RENDER_MODE_MESH})
     @Retention(RetentionPolicy.SOURCE)
-    public @interface ChildType {
+    public @interface RenderMode {
 
     }
 
     /**
-     * 子控件类型无，为子控件默认类型
+     * 使用{@link Path}填充绘制波浪，为默认方式
      */
-    public static final int TYPE_CHILD_NONE = 0;
+    public static final int RENDER_MODE_PATH = 0;
 
     /**
-     * 子控件类型头部，仅允许有一个
+     * 使用{@link Canvas#drawVertices}绘制波浪三角形网格，顶点预先分配且仅在波峰高度或边界变化时更新。
+     * 硬件加速在Android 10以下不支持drawVertices，此时自动退回{@link #RENDER_MODE_PATH}。
+     * drawVertices忽略画笔的抗锯齿设置，波浪边缘会出现锯齿，适用于更看重绘制耗时的场景
      */
-    public static final int TYPE_CHILD_HEADER = 1;
+    public static final int RENDER_MODE_MESH = 1;
 
     /**
-     * 子控件类型脚部，仅允许有一个
+     * 下拉偏移方式注解，所修饰变量可取{@link #PULL_MODE_SCROLL}和{@link #PULL_MODE_TRANSLATION}之一
      */
-    public static final int TYPE_CHILD_FOOTER = 2;
+    @IntDef({PULL_MODE_SCROLL, PULL_MODE_TRANSLATION})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface PullMode {
+
+    }
+
+    /**
+     * 通过滚动整个控件实现下拉偏移，为默认方式
+     */
+    public static final int PULL_MODE_SCROLL = 0;
+
+    /**
+     * 通过设置子控件的translationY实现下拉偏移，偏移变化仅修改渲染节点属性，本控件无需重新记录绘制内容
+     */
+    public static final int PULL_MODE_TRANSLATION = 1;
 
     /**
      * 状态类型注解，所修饰变量可取
@@ -109,250 +119,273 @@ public class WaveRefreshLayout extends LinearLayout {
     /**
      * 上滑到头部完全隐藏状态
      */
-    private static final int STATE_HEADER_HIDE = 0;
+    public static final int STATE_HEADER_HIDE = 0;
 
     /**
      * 上滑至波浪底部隐藏
      */
-    private static final int STATE_WAVE_HIDE = 1;
+    public static final int STATE_WAVE_HIDE = 1;
 
     /**
      * 轻微上滑及无滑动状态
      */
-    private static final int STATE_NORMAL = 2;
+    public static final int STATE_NORMAL = 2;
 
     /**
      * 下滑但未达到刷新高度状态
      */
-    private static final int STATE_PULL_TO_REFRESH = 3;
+    public static final int STATE_PULL_TO_REFRESH = 3;
 
     /**
      * 太阳可见
      */
-    private static final int STATE_SHOW_SUN = 4;
+    public static final int STATE_SHOW_SUN = 4;
 
     /**
      * 下滑达到可刷新高度状态
      */
-    private static final int STATE_REFRESHABLE = 5;
+    public static final int STATE_REFRESHABLE = 5;
 
     /**
-     * 太阳的光线数
+     * 无效的触摸点ID
      */
-    private static final int NUMBER_OF_SUNSHINE = 12;
+    private static final int INVALID_POINTER = -1;
 
     /**
-     * 初始的水波基线偏移
+     * 预测模式下向前外推的时间，约为一帧
      */
-    private static final int WAVE_BASELINE_OFFSET = 36;
+    private static final int PREDICTION_TIME = 16;
 
     /**
-     * 太阳中心偏移
+     * 预测模式下最大外推距离
      */
-    private static final int SUN_CENTER_OFFSET = 108;
+    private static final int MAX_PREDICTION_DISTANCE = 48;
 
     /**
-     * 刷新需要达到的最小高度
+     * 默认的可能刷新阈值，为刷新高度{@code 200}的比例
      */
-    private static final int MIN_REFRESH_HEIGHT = 200;
+    private static final float DEFAULT_REFRESH_LIKELY_FRACTION = 0.7f;
 
     /**
-     * 深色波浪颜色
+     * 默认的动画帧率上限
      */
-    private int mWaveColorDark;
+    static final int DEFAULT_FRAME_RATE = 60;
 
     /**
-     * 浅色波浪颜色
+     * 下拉偏移方式
      */
-    private int mWaveColorLight;
+    @PullMode
+    private int mPullMode;
 
     /**
-     * 背景颜色
+     * {@link #PULL_MODE_TRANSLATION}方式下的下拉偏移，与滚动方式下的scrollY含义一致，负值表示下拉
      */
-    private int mBackgroundColor;
+    private int mTranslationOffset;
 
     /**
-     * 太阳颜色
+     * 头部底坐标
      */
-    private int mSunColor;
+    private int mHeaderBottom = -1;
 
     /**
-     * 深色波浪画笔
+     * 绘制波浪、太阳及云朵的内部头部控件，添加在本控件的{@link android.view.ViewOverlay}中而非作为子控件，
+     * 拥有独立的显示列表，头部动画只需重绘该控件，不会使内容子控件所在的布局重新记录。
+     * API 18以下没有ViewOverlay，为null，头部在{@link #onDraw(Canvas)}中直接绘制
      */
-    private Paint mWavePaintDark;
+    private HeaderView mHeaderView;
 
     /**
-     * 浅色波浪画笔
+     * 是否已订阅共享动画节拍
+     *
+     * @see #updateTickerSubscription()
      */
-    private Paint mWavePaintLight;
+    private boolean mIsTickerSubscribed;
 
     /**
-     * 背景画笔
+     * 是否已添加到窗口
      */
-    private Paint mBackgroundPaint;
+    private boolean mIsAttached;
 
     /**
-     * 太阳画笔
+     * 弹回刷新位置的回弹是否因移出窗口而中断，重新添加到窗口时继续回弹
      */
-    private Paint mSunPaint;
+    private boolean mIsRestoreInterrupted;
 
     /**
-     * 云画笔
+     * 拖动、回弹、滑动或刷新期间的环境动画帧率上限
      */
-    private Paint mCloudPaint;
+    private int mActiveFrameRate = DEFAULT_FRAME_RATE;
 
     /**
-     * 浅色波浪路径
+     * 空闲时的环境动画帧率上限，为0时空闲即静止
      */
-    private Path mLightWavePath;
+    private int mIdleFrameRate;
 
     /**
-     * 深色波浪路径
+     * 空闲超过该时间后冻结环境动画，为0时不冻结
      */
-    private Path mDarkWavePath;
+    private long mIdleFreezeDelay;
 
     /**
-     * 背景路径
+     * 上次处于活动状态的时间，取自{@link SystemClock#uptimeMillis()}
      */
-    private Path mBackgroundPath;
+    private long mLastActiveTime;
 
     /**
-     * 阳光路径
+     * 环境动画是否已冻结，冻结时不订阅共享动画节拍
      */
-    private Path mSunshinePath;
+    private boolean mIsAnimationFrozen;
 
     /**
-     * 太阳路径
+     * 尚未应用的动画步数，帧率上限低于节拍频率时累积到下一次重绘
      */
-    private Path mSunPath;
+    private int mPendingSteps;
 
     /**
-     * 阳光内部圆的半径
+     * 上一个触摸点的纵坐标
      */
-    private int mRadiusOuter;
+    private float mLastY;
 
     /**
-     * 太阳中心圆的半径
+     * 当前跟踪的触摸点ID，多点触控时在手指抬起后移交给剩余的触摸点
      */
-    private int mRadiusInner;
+    private int mActivePointerId = INVALID_POINTER;
 
     /**
-     * 阳光光线长度
+     * 阻尼计算后尚未应用的亚像素滑动距离
      */
-    private int mSunshineLength;
+    private float mPendingDY;
 
     /**
-     * 头部底坐标
+     * 是否开启预测拖动模式
      */
-    private int mHeaderBottom = -1;
+    private boolean mIsPredictiveDragEnabled;
 
     /**
-     * 波峰初始高度
+     * 预测模式下超出手指实际位置的滑动距离
      */
-    private int mInitialPeakHeight;
+    private int mPredictedDY;
 
     /**
-     * 波峰高度
+     * 头部绘制器，包含样式、画笔、几何缓存及头部动画参数
      */
-    private float mPeakHeight;
+    private WaveHeaderRenderer mRenderer;
 
     /**
-     * 水波宽度
+     * 页面当前状态
      */
-    private int mWaveWidth;
+    @State
+    private int mStateIndex;
 
     /**
-     * 贝塞尔曲线控制点
-     *
-     * @see #addWaveLineToPath(Path, int)
+     * 回弹弹簧
      */
-    private PointF mCtrl = new PointF();
+    private RestoreSpring mRestoreSpring;
 
     /**
-     * 贝塞尔曲线目标点
-     *
-     * @see #addWaveLineToPath(Path, int)
+     * 上一回弹帧的时间
      */
-    private PointF mDst = new PointF();
+    private long mLastRestoreFrameNanos;
 
     /**
-     * 水平移动线程
-     *
-     * @see #startUpdateViewThread()
-     * @see #stopUpdateViewThread()
+     * 结束后是否会进入刷新状态
      */
-    private Thread mUpdateThread;
+    private boolean mRefreshWhenFinish;
 
     /**
-     * 波浪水平偏移
+     * 是否允许刷新功能
      */
-    private float mHorizontalOffset;
+    private boolean mIsRefreshable;
 
     /**
-     * 上一个触摸点的纵坐标
+     * 是否正在刷新
      */
-    private float mLastY;
+    private boolean mIsRefreshing;
 
     /**
-     * 太阳旋转角度
+     * 刷新监听器
      */
-    private float mSunRotateDegree;
+    private OnRefreshListener mOnRefreshListener;
 
     /**
-     * 页面当前状态
+     * 上次刷新完成的时间，取自{@link System#currentTimeMillis()}，从未刷新时为0
      */
-    @State
-    private int mStateIndex;
+    private long mLastRefreshTime;
 
     /**
-     * 弹回动画
+     * 下拉状态监听器
      */
-    private ValueAnimator mRestoreAnim;
+    private OnPullStateListener mOnPullStateListener;
 
     /**
-     * 开始弹回时的ScrollY值
+     * 触发{@link OnPullStateListener#onRefreshLikely()}的下拉比例
      */
-    private int mScrollYRestoreFrom;
+    private float mRefreshLikelyFraction = DEFAULT_REFRESH_LIKELY_FRACTION;
 
     /**
-     * 结束后是否会进入刷新状态
+     * 本次下拉是否已通知过可能刷新
      */
-    private boolean mRefreshWhenFinish;
+    private boolean mIsRefreshLikelyNotified;
 
     /**
-     * 是否允许刷新功能
+     * 刷新耗时统计
      */
-    private boolean mIsRefreshable;
+    private final RefreshMetrics mRefreshMetrics = new RefreshMetrics();
 
     /**
-     * 是否正在刷新
+     * 当前刷新的耗时记录
      */
-    private boolean mIsRefreshing;
+    private RefreshRecord mCurrentRecord;
 
     /**
-     * 刷新监听器
+     * 刷新耗时监听器
      */
-    private OnRefreshListener mOnRefreshListener;
+    private OnRefreshMetricsListener mOnRefreshMetricsListener;
 
     /**
-     * 云朵位图对象
+     * 下拉延迟统计
      */
-    private Bitmap mCloudBitmap;
+    private final PullLatencyMetrics mPullLatencyMetrics = new PullLatencyMetrics();
 
     /**
-     * 云宽度
+     * 当前手势的延迟记录
      */
-    private int mCloudWidth;
+    private PullLatencyRecord mCurrentLatencyRecord;
 
     /**
-     * 云高度
+     * 当前手势是否已抬起，记录在最后一帧显示后结束
      */
-    private int mCloudHeight;
+    private boolean mIsLatencyGestureEnded;
 
     /**
-     * 云位置横坐标
+     * 尚未进入绘制帧的最早输入时间
      */
-    private int mCloudX;
+    private long mPendingInputTime = RefreshRecord.NOT_RECORDED;
+
+    /**
+     * 已进入绘制帧、等待显示的最早输入时间
+     */
+    private long mRenderingInputTime = RefreshRecord.NOT_RECORDED;
+
+    /**
+     * 下拉延迟监听器
+     */
+    private OnPullLatencyListener mOnPullLatencyListener;
+
+    /**
+     * 性能追踪器
+     */
+    private WaveTracer mTracer = WaveTracer.NONE;
+
+    /**
+     * 触摸事件记录器
+     */
+    private GestureRecorder mGestureRecorder;
+
+    /**
+     * 所属刷新组
+     */
+    private RefreshGroup mRefreshGroup;
 
     private VelocityTracker mVelocityTracker;
 
@@ -360,7 +393,50 @@ public class WaveRefreshLayout extends LinearLayout {
 
     private int mScrollBottom = 20000;
 
-    private long mRestoreDuration;
+    /**
+     * 刷新超时时间，超过该时间仍未完成刷新时自动结束，为0时不限制
+     */
+    private long mRefreshTimeout;
+
+    /**
+     * 本次刷新超时的时间，取自{@link SystemClock#uptimeMillis()}，为0时不限制
+     */
+    private long mRefreshTimeoutTime;
+
+    /**
+     * 刷新超时监听器
+     */
+    private OnRefreshTimeoutListener mOnRefreshTimeoutListener;
+
+    /**
+     * 增量刷新的目标进度，取值范围为[0, 1]
+     */
+    private float mRefreshProgress;
+
+    /**
+     * 是否在下拉、回弹及刷新期间将内容子控件缓存为硬件层
+     */
+    private boolean mIsContentLayerEnabled = true;
+
+    /**
+     * 内容子控件当前是否处于硬件层缓存阶段
+     */
+    private boolean mIsContentLayered;
+
+    /**
+     * 当前由本控件设置为硬件层的内容子控件，释放时仅恢复这些控件
+     */
+    private final ArrayList<View> mLayeredChildren = new ArrayList<>();
+
+    /**
+     * 硬件加速画布支持的最大纹理边长，首次硬件绘制时获取，为0时尚未获取
+     */
+    private int mMaxTextureSize;
+
+    /**
+     * 所在窗口的可见区域，用于限制提升为硬件层的子控件高度
+     */
+    private final Rect mWindowFrame = new Rect();
 
     public WaveRefreshLayout(Context context) {
         this(context, null);
@@ -369,51 +445,22 @@ public class WaveRefreshLayout extends LinearLayout {
     public WaveRefreshLayout(Context context, AttributeSet attrs) {
         super(context, attrs);
         initFromAttributes(context, attrs);
-        initPaints();
         initLayoutSettings();
-        initSunshinePath();
-        initCloudBitmap();
-        initAnimator();
+        mRestoreSpring = new RestoreSpring(mRenderer.getStyle().restoreDuration);
     }
 
     private void initFromAttributes(Context context, AttributeSet attrs) {
         TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.WaveRefreshLayout);
-        mWaveColorLight = a.getColor(R.styleable.WaveRefreshLayout_colorWaveLight, 0xFF2186F3);
-        mWaveColorDark = a.getColor(R.styleable.WaveRefreshLayout_colorWaveDark, 0xFF175DAA);
-        mBackgroundColor = a.getColor(R.styleable.WaveRefreshLayout_colorBackground, 0xFF64A8D1);
-        mInitialPeakHeight = a.getDimensionPixelSize(R.styleable.WaveRefreshLayout_peakHeight, 16);
-        mWaveWidth = a.getDimensionPixelSize(R.styleable.WaveRefreshLayout_waveWidth, 200);
-        mSunColor = a.getColor(R.styleable.WaveRefreshLayout_colorSun, 0xFFFFC900);
-        mSunshineLength = a.getDimensionPixelOffset(R.styleable.WaveRefreshLayout_sunshineLength, 16);
+        mRenderer = new WaveHeaderRenderer(getResources(), WaveStyle.fromTypedArray(a));
         mIsRefreshable = a.getBoolean(R.styleable.WaveRefreshLayout_refreshable, true);
-        mRestoreDuration = a.getInt(R.styleable.WaveRefreshLayout_restoreDuration, 200);
-        mCloudWidth = a.getDimensionPixelSize(R.styleable.WaveRefreshLayout_cloudWidth, 108);
-        mCloudHeight = a.getDimensionPixelOffset(R.styleable.WaveRefreshLayout_cloudHeight, 72);
-        mRadiusOuter = a.getDimensionPixelOffset(R.styleable.WaveRefreshLayout_sunRadius, 36);
-        mRadiusInner = mRadiusOuter - 9;
+        mRefreshTimeout = a.getInt(R.styleable.WaveRefreshLayout_refreshTimeout, 0);
+        mRenderer.setRenderMode(a.getInt(R.styleable.WaveRefreshLayout_waveRenderMode, RENDER_MODE_PATH));
+        mPullMode = a.getInt(R.styleable.WaveRefreshLayout_pullMode, PULL_MODE_SCROLL);
+        mIdleFrameRate = a.getInt(R.styleable.WaveRefreshLayout_idleFrameRate, DEFAULT_FRAME_RATE);
+        mIdleFreezeDelay = a.getInt(R.styleable.WaveRefreshLayout_idleFreezeDelay, 0);
         a.recycle();
     }
 
-    /**
-     * 初始化画笔
-     */
-    private void initPaints() {
-        mWavePaintLight = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mWavePaintLight.setColor(mWaveColorLight);
-        mWavePaintLight.setStyle(Paint.Style.FILL_AND_STROKE);
-        mWavePaintLight.setAlpha(128);
-        mWavePaintDark = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mWavePaintDark.setColor(mWaveColorDark);
-        mWavePaintDark.setStyle(Paint.Style.FILL_AND_STROKE);
-        mBackgroundPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mBackgroundPaint.setColor(mBackgroundColor);
-        mBackgroundPaint.setStyle(Paint.Style.FILL_AND_STROKE);
-        mSunPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mSunPaint.setColor(mSunColor);
-        mSunPaint.setStyle(Paint.Style.FILL);
-        mCloudPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-    }
-
     /**
      * 初始化布局设置
      */
@@ -422,99 +469,100 @@ public class WaveRefreshLayout extends LinearLayout {
         setFocusable(true);
         setDescendantFocusability(FOCUS_AFTER_DESCENDANTS);
         setOrientation(VERTICAL);
-        setWillNotDraw(false);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            mHeaderView = new HeaderView(getContext());
+            getOverlay().add(mHeaderView);
+            setWillNotDraw(true);
+        } else {
+            setWillNotDraw(false);
+        }
         mStateIndex = STATE_NORMAL;
         mScroller = new Scroller(getContext());
     }
 
     /**
-     * 初始化阳光路径
-     */
-    private void initSunshinePath() {
-        mSunshinePath = new Path();
-        final int dis = mRadiusOuter + mSunshineLength;
-        float degree = 180f / NUMBER_OF_SUNSHINE;
-        float radian = (float) Math.toRadians(degree);
-        mSunshinePath.moveTo(0, -dis);
-        float j = radian;
-        for (int i = 0; i < NUMBER_OF_SUNSHINE; i++, j += 2 * radian) {
-            mSunshinePath.lineTo((float) (mRadiusOuter * Math.sin(j)), -(float) (mRadiusOuter * Math.cos(j)));
-            mSunshinePath.lineTo((float) (dis * Math.sin(j + radian)), -(float) (dis * Math.cos(radian + j)));
-        }
-        mSunshinePath.close();
-        mSunshinePath.addCircle(0, 0, mRadiusOuter - 3, Path.Direction.CCW);
+     * 开始回弹，弹回初始位置或弹回到刷新位置，可被新的触摸打断
+     *
+     * @param velocity 松手时的滑动速度，单位为像素每秒
+     */
+    private void startRestore(float velocity) {
+        final int target = mRefreshWhenFinish ? -WaveHeaderRenderer.MIN_REFRESH_HEIGHT : 0;
+        mRestoreSpring.start(getPullOffset(), velocity, target);
+        mLastRestoreFrameNanos = 0;
+        Choreographer.getInstance().removeFrameCallback(mRestoreFrameCallback);
+        Choreographer.getInstance().postFrameCallback(mRestoreFrameCallback);
     }
 
     /**
-     * 初始化云朵位图
+     * 打断回弹，控件停留在当前位置。
+     * 若打断的是完成刷新后的回弹，数据已获取完成，立即回调{@link OnRefreshListener#onLoadData()}
      */
-    private void initCloudBitmap() {
-        Bitmap temp = BitmapFactory.decodeResource(getResources(), R.drawable.ic_cloud);
-        mCloudBitmap = Bitmap.createScaledBitmap(temp, mCloudWidth, mCloudHeight, true);
+    private void cancelRestore() {
+        if (!mRestoreSpring.isRunning()) return;
+        mRestoreSpring.cancel();
+        Choreographer.getInstance().removeFrameCallback(mRestoreFrameCallback);
+        if (mIsRefreshing && !mRefreshWhenFinish) onRestoreEnd();
     }
 
     /**
-     * 初始化动画
+     * 回弹帧回调，按帧间隔推进弹簧
      */
-    private void initAnimator() {
-        mRestoreAnim = ValueAnimator.ofFloat(1, 0);
-        mRestoreAnim.setDuration(mRestoreDuration);
-        mRestoreAnim.setInterpolator(new DecelerateInterpolator());
-        mRestoreAnim.addListener(mAnimListener);
-        mRestoreAnim.addUpdateListener(mUpdateListener);
-    }
-
-    private ValueAnimator.AnimatorUpdateListener mUpdateListener = new ValueAnimator.AnimatorUpdateListener() {
+    private Choreographer.FrameCallback mRestoreFrameCallback = new Choreographer.FrameCallback() {
         @Override
-        public void onAnimationUpdate(ValueAnimator animation) {
-            float animatedValue = (float) animation.getAnimatedValue();
-            restoreView(animatedValue);
+        public void doFrame(long frameTimeNanos) {
+            final float dt = mLastRestoreFrameNanos == 0 ? 0.016f : (frameTimeNanos - mLastRestoreFrameNanos) / 1e9f;
+            mLastRestoreFrameNanos = frameTimeNanos;
+            final boolean isRunning = mRestoreSpring.advance(dt);
+            restoreView(Math.round(mRestoreSpring.getPosition()));
+            if (isRunning) Choreographer.getInstance().postFrameCallback(this);
+            else onRestoreEnd();
         }
     };
 
     /**
      * 恢复控件，弹回初始位置或弹回到刷新位置
      *
-     * @param percentage 回弹百分比
+     * @param scrollY 当前回弹位置
      */
-    private void restoreView(float percentage) {
-        int scrollY;
-        if (mRefreshWhenFinish) //执行刷新，弹回到刷新高度
-            scrollY = (int) ((mScrollYRestoreFrom + MIN_REFRESH_HEIGHT) * percentage) - MIN_REFRESH_HEIGHT;
-        else //不执行刷新，直接弹回初始位置
-            scrollY = (int) (mScrollYRestoreFrom * percentage);
-        scrollTo(0, scrollY);
+    private void restoreView(int scrollY) {
+        offsetTo(scrollY);
         updateState();
         updateDrawParams();
     }
 
-    private Animator.AnimatorListener mAnimListener = new Animator.AnimatorListener() {
-        @Override
-        public void onAnimationEnd(Animator animation) {
-            if (mOnRefreshListener != null && mIsRefreshing) {
-                if (mRefreshWhenFinish) {
-                    mIsRefreshing = true;
-                    mOnRefreshListener.onAcquireData();
-                } else {
+    /**
+     * 回弹结束，弹回刷新位置时开始获取数据，完成刷新后弹回初始位置时加载数据
+     */
+    private void onRestoreEnd() {
+        if (mOnRefreshListener != null && mIsRefreshing) {
+            if (mRefreshWhenFinish) {
+                mIsRefreshing = true;
+                if (mCurrentRecord != null) mCurrentRecord.acquireTime = SystemClock.uptimeMillis();
+                scheduleRefreshTimeout();
+                mRefreshProgress = 0;
+                mRenderer.displayedProgress = 0;
+                if (mRefreshGroup == null || mRefreshGroup.join(this)) {
+                    mTracer.beginSection(WaveTracer.SECTION_ACQUIRE_DATA);
+                    try {
+                        mOnRefreshListener.onAcquireData();
+                    } finally {
+                        mTracer.endSection();
+                    }
+                }
+            } else {
+                mTracer.beginSection(WaveTracer.SECTION_LOAD_DATA);
+                try {
                     mOnRefreshListener.onLoadData();
-                    mRefreshWhenFinish = false;
-                    mIsRefreshing = false;
+                } finally {
+                    mTracer.endSection();
                 }
+                mRefreshWhenFinish = false;
+                mIsRefreshing = false;
+                mLastRefreshTime = System.currentTimeMillis();
+                dispatchRefreshRecord();
             }
         }
-
-        @Override
-        public void onAnimationStart(Animator animation) {
-        }
-
-        @Override
-        public void onAnimationCancel(Animator animation) {
-        }
-
-        @Override
-        public void onAnimationRepeat(Animator animation) {
-        }
-    };
+    }
 
     /**
      * 完成刷新
@@ -522,7 +570,8 @@ public class WaveRefreshLayout extends LinearLayout {
      * 需要{@link #setIsRefreshable(boolean)}置为true
      */
     public void finishRefresh() {
-        finishRefresh(false);
+        if (mRefreshGroup != null && mRefreshGroup.isParticipating(this)) mRefreshGroup.finishRefresh();
+        else finishRefresh(false);
     }
 
     /**
@@ -533,335 +582,629 @@ public class WaveRefreshLayout extends LinearLayout {
      * @param isCancel 是否放弃刷新
      */
     private void finishRefresh(boolean isCancel) {
+        removeCallbacks(mRefreshTimeoutRunnable);
+        if (isCancel && mRefreshGroup != null) mRefreshGroup.leave(this);
         if (mIsRefreshable && mIsRefreshing) {
-            mCloudX = 0;
+            if (mCurrentRecord != null && !isCancel) mCurrentRecord.finishTime = SystemClock.uptimeMillis();
+            mRenderer.cloudX = 0;
+            mRefreshProgress = 0;
             mRefreshWhenFinish = false;
-            mScrollYRestoreFrom = -MIN_REFRESH_HEIGHT;
             if (mStateIndex == STATE_REFRESHABLE && !isCancel) {
-                mRestoreAnim.start();
+                startRestore(0);
             }
         }
     }
 
-    @Override
-    public boolean shouldDelayChildPressedState() {
-        return true;
-    }
-
-    @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        int expandSpec = MeasureSpec.makeMeasureSpec(Integer.MAX_VALUE >> 2, MeasureSpec.AT_MOST);
-        super.onMeasure(widthMeasureSpec, expandSpec);
-    }
-
-    @Override
-    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
-        super.onSizeChanged(w, h, oldw, oldh);
-        startUpdateViewThread();
-        updateDrawParams();
-        Rect rect = new Rect();
-        getGlobalVisibleRect(rect);
-    }
-
-    @Override
-    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
-        canvas.translate(0, getHeaderBottom());
-        return super.drawChild(canvas, child, drawingTime);
-    }
-
     /**
-     * 结束更新控件线程
+     * 发布增量刷新的进度，需在主线程调用。
+     * 仅驱动头部，水波会随进度上升，已获取的部分数据由调用方自行展示，
+     * 全部获取完成后仍需调用{@link #finishRefresh()}。每次发布都会重新开始刷新超时计时
+     *
+     * @param progress 获取进度，取值范围为[0, 1]
      */
-    private void stopUpdateViewThread() {
-        if (mUpdateThread != null) {
-            mUpdateThread.interrupt();
-            mUpdateThread = null;
-        }
+    public void publishProgress(float progress) {
+        if (mRefreshGroup != null && mRefreshGroup.isParticipating(this)) mRefreshGroup.publishProgress(progress);
+        else applyProgress(progress);
     }
 
     /**
-     * 开始更新控件线程
-     */
-    private void startUpdateViewThread() {
-        if (mUpdateThread == null) {
-            mUpdateThread = new Thread() {
-                @Override
-                public void run() {
-                    while (true) {
-                        try {
-                            if (mStateIndex > STATE_WAVE_HIDE) {
-                                mHorizontalOffset--;
-                                mHorizontalOffset %= (mWaveWidth * 2);
-                                if (mIsRefreshable && mIsRefreshing) {
-                                    mSunRotateDegree += 5;
-                                    mCloudX += 2;
-                                    final int distance = getWidth() + mCloudWidth;
-                                    mCloudX %= distance;
-                                }
-                                postInvalidate();
-                                Thread.sleep(16);
-                            }
-                        } catch (InterruptedException e) {
-                            break;
-                        }
-                    }
-                }
-            };
-            mUpdateThread.start();
-        }
+     * 应用增量刷新的进度
+     *
+     * @param progress 获取进度，取值范围为[0, 1]
+     * @see #publishProgress(float)
+     */
+    private void applyProgress(float progress) {
+        if (!isRefreshing()) return;
+        mRefreshProgress = Math.max(0, Math.min(1, progress));
+        scheduleRefreshTimeout();
+        invalidateHeader();
     }
 
     /**
-     * 获取头部底坐标
+     * 所属刷新组的共享获取完成时调用
      *
-     * @return 底部纵坐标
+     * @see RefreshGroup#finishRefresh()
      */
-    private int getHeaderBottom() {
-        final int count = getChildCount();
-        if (count <= 0) return 0;
-        View headerView = findChildByType(TYPE_CHILD_HEADER);
-        if (headerView == null) {
-            final View child = getChildAt(0);
-            LayoutParams lp = (LayoutParams) child.getLayoutParams();
-            return WAVE_BASELINE_OFFSET + mInitialPeakHeight + MIN_WAVE_HEIGHT + lp.topMargin + child.getTop();
-        } else {
-            LayoutParams lp = (LayoutParams) headerView.getLayoutParams();
-            return lp.bottomMargin + headerView.getBottom();
-        }
+    void onGroupRefreshFinished() {
+        finishRefresh(false);
     }
 
     /**
-     * 通过类型找到子控件
+     * 所属刷新组分发增量刷新进度时调用
      *
-     * @param target 类型值
-     * @return 找到的第一个该类型子控件
+     * @param progress 获取进度
+     * @see RefreshGroup#publishProgress(float)
      */
-    private View findChildByType(@ChildType int target) {
-        final int count = getChildCount();
-        for (int i = 0; i < count; i++) {
-            final View child = getChildAt(i);
-            LayoutParams lp = (LayoutParams) child.getLayoutParams();
-            if (lp.childType == target) {
-                return child;
-            }
-        }
-        return null;
+    void onGroupProgress(float progress) {
+        applyProgress(progress);
     }
 
-    @Override
-    protected void onDraw(Canvas canvas) {
-        final int scrollY = getScrollY();
-        if (mHeaderBottom == -1) mHeaderBottom = getHeaderBottom();
-        if (mStateIndex > STATE_WAVE_HIDE) drawBackground(canvas);
-        if (mIsRefreshing && mIsRefreshable)
-            drawCloud(mCloudX, scrollY + SUN_CENTER_OFFSET - 56, 200, false, canvas);
-        if (mStateIndex >= STATE_SHOW_SUN) drawSun(canvas);
-        if (mIsRefreshing && mIsRefreshable)
-            drawCloud(mCloudX, scrollY + SUN_CENTER_OFFSET - 16, 255, true, canvas);
-        if (mStateIndex > STATE_HEADER_HIDE) drawDarkWave(canvas);
-        if (mStateIndex > STATE_WAVE_HIDE) drawLightWave(canvas);
+    /**
+     * 接替所属刷新组的发起者时调用，重新获取数据
+     *
+     * @see RefreshGroup#remove(WaveRefreshLayout)
+     */
+    void onGroupAcquireData() {
+        if (mOnRefreshListener == null) return;
+        mTracer.beginSection(WaveTracer.SECTION_ACQUIRE_DATA);
+        try {
+            mOnRefreshListener.onAcquireData();
+        } finally {
+            mTracer.endSection();
+        }
     }
 
     /**
-     * 绘制背景
+     * 获取增量刷新的进度
      *
-     * @param canvas 画布
+     * @return 最近一次{@link #publishProgress(float)}发布的进度，未发布时为0
      */
-    private void drawBackground(Canvas canvas) {
-        canvas.save();
-        canvas.translate(mHorizontalOffset, 0);
-        updateBackgroundPath();
-        canvas.drawPath(mBackgroundPath, mBackgroundPaint);
-        canvas.restore();
+    public float getRefreshProgress() {
+        return mRefreshProgress;
     }
 
     /**
-     * 绘制浅色波浪
+     * 开始刷新超时计时
      *
-     * @param canvas 画布
+     * @see #setRefreshTimeout(long)
      */
-    private void drawLightWave(Canvas canvas) {
-        canvas.save();
-        canvas.translate(mHorizontalOffset, 0);
-        updateLightWavePath();
-        canvas.drawPath(mLightWavePath, mWavePaintLight);
-        canvas.restore();
+    private void scheduleRefreshTimeout() {
+        removeCallbacks(mRefreshTimeoutRunnable);
+        mRefreshTimeoutTime = mRefreshTimeout > 0 ? SystemClock.uptimeMillis() + mRefreshTimeout : 0;
+        if (mRefreshTimeout > 0) postDelayed(mRefreshTimeoutRunnable, mRefreshTimeout);
     }
 
     /**
-     * 绘制深色波浪
-     *
-     * @param canvas 画布
+     * 刷新超时后自动完成刷新，并通知超时监听器
      */
-    private void drawDarkWave(Canvas canvas) {
-        canvas.save();
-        updateDarkWavePath();
-        canvas.translate(mHorizontalOffset, 0);
-        canvas.drawPath(mDarkWavePath, mWavePaintDark);
-        canvas.restore();
-    }
+    private Runnable mRefreshTimeoutRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!isRefreshing()) return;
+            if (mCurrentRecord != null) mCurrentRecord.timedOut = true;
+            if (mOnRefreshTimeoutListener != null) mOnRefreshTimeoutListener.onRefreshTimeout(mRefreshTimeout);
+            finishRefresh();
+        }
+    };
 
     /**
-     * 绘制太阳
-     *
-     * @param canvas 画布
+     * 结束当前刷新的耗时记录，完整的记录会加入统计并通知监听器
      */
-    private void drawSun(Canvas canvas) {
-        final int scrollY = getScrollY();
-        canvas.save();
-        canvas.translate(getWidth() / 2, scrollY + SUN_CENTER_OFFSET);
-        canvas.rotate(mSunRotateDegree, 0, 0);
-        updateSunPath();
-        canvas.drawPath(mSunPath, mSunPaint);
-        canvas.restore();
+    private void dispatchRefreshRecord() {
+        final RefreshRecord record = mCurrentRecord;
+        mCurrentRecord = null;
+        if (record == null) return;
+        record.loadedTime = SystemClock.uptimeMillis();
+        if (!record.isComplete()) return;
+        mRefreshMetrics.add(record);
+        if (mOnRefreshMetricsListener != null) {
+            mOnRefreshMetricsListener.onRefreshRecorded(record, mRefreshMetrics);
+        }
     }
 
     /**
-     * 绘制云朵
+     * 开始记录一次手势的延迟，未结束的上一次记录将丢弃尚未显示的样本后结束
      *
-     * @param x      云朵横坐标
-     * @param y      云朵纵坐标
-     * @param alpha  云朵透明度
-     * @param isRtl  是否为从右至左
-     * @param canvas 画布
-     */
-    private void drawCloud(int x, int y, int alpha, boolean isRtl, Canvas canvas) {
-        mCloudPaint.setAlpha(alpha);
-        canvas.save();
-        if (isRtl) canvas.scale(-1, 1, getWidth() / 2, 0);
-        canvas.drawBitmap(mCloudBitmap, x, y, mCloudPaint);
-        canvas.restore();
+     * @param event {@link MotionEvent#ACTION_DOWN}事件
+     */
+    private void startLatencyRecord(MotionEvent event) {
+        if (mCurrentLatencyRecord != null && mCurrentLatencyRecord.downTime == event.getDownTime()) return;
+        cancelLatencyFrames();
+        dispatchLatencyRecord();
+        mCurrentLatencyRecord = new PullLatencyRecord(event.getDownTime());
+        mIsLatencyGestureEnded = false;
     }
 
     /**
-     * 更新背景路径
-     */
-    private void updateBackgroundPath() {
-        if (mBackgroundPath == null)
-            mBackgroundPath = new Path();
-        else mBackgroundPath.reset();
-        final int scrollY = getScrollY();
-        mBackgroundPath.moveTo(0, scrollY);
-        mBackgroundPath.rLineTo(0, WAVE_BASELINE_OFFSET - scrollY);
-        addWaveLineToPath(mBackgroundPath, TYPE_BACKGROUND);
-        mBackgroundPath.rLineTo(0, scrollY - WAVE_BASELINE_OFFSET);
-        mBackgroundPath.lineTo(0, scrollY);
-        mBackgroundPath.close();
+     * 记录一次改变了下拉位置的输入，在其进入的绘制帧之后的下一帧计为显示
+     *
+     * @param inputTime 输入采样时间，取自{@link MotionEvent#getEventTime()}
+     * @see #mLatencyRenderCallback
+     */
+    private void markLatencyInput(long inputTime) {
+        if (mCurrentLatencyRecord == null || mIsLatencyGestureEnded) return;
+        if (mPendingInputTime != RefreshRecord.NOT_RECORDED) return;
+        mPendingInputTime = inputTime;
+        Choreographer.getInstance().postFrameCallback(mLatencyRenderCallback);
     }
 
     /**
-     * 更新深色波浪路径
+     * 手势抬起，没有等待显示的输入时立即结束记录
      */
-    private void updateDarkWavePath() {
-        if (mDarkWavePath == null) mDarkWavePath = new Path();
-        else mDarkWavePath.reset();
-        mDarkWavePath.moveTo(0, mHeaderBottom);
-        mDarkWavePath.lineTo(0, WAVE_BASELINE_OFFSET);
-        addWaveLineToPath(mDarkWavePath, TYPE_DARK_WAVE);
-        mDarkWavePath.rLineTo(0, mHeaderBottom - WAVE_BASELINE_OFFSET);
-        mDarkWavePath.lineTo(0, mHeaderBottom);
-        mDarkWavePath.close();
+    private void endLatencyRecord() {
+        mIsLatencyGestureEnded = true;
+        if (mPendingInputTime == RefreshRecord.NOT_RECORDED && mRenderingInputTime == RefreshRecord.NOT_RECORDED) {
+            dispatchLatencyRecord();
+        }
+    }
+
+    private void cancelLatencyFrames() {
+        Choreographer.getInstance().removeFrameCallback(mLatencyRenderCallback);
+        Choreographer.getInstance().removeFrameCallback(mLatencyPresentCallback);
+        mPendingInputTime = RefreshRecord.NOT_RECORDED;
+        mRenderingInputTime = RefreshRecord.NOT_RECORDED;
     }
 
     /**
-     * 更新浅色波浪路径
+     * 输入所在的绘制帧，动画回调先于布局绘制执行，本帧绘制即反映该输入
      */
-    private void updateLightWavePath() {
-        if (mLightWavePath == null) mLightWavePath = new Path();
-        else mLightWavePath.reset();
-        mLightWavePath.moveTo(0, WAVE_BASELINE_OFFSET);
-        addWaveLineToPath(mLightWavePath, TYPE_LIGHT_WAVE);
-        mLightWavePath.moveTo(0, WAVE_BASELINE_OFFSET);
-        addWaveLineToPath(mLightWavePath, TYPE_DARK_WAVE);
-        mLightWavePath.close();
-    }
+    private final Choreographer.FrameCallback mLatencyRenderCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (mRenderingInputTime == RefreshRecord.NOT_RECORDED) {
+                mRenderingInputTime = mPendingInputTime;
+                Choreographer.getInstance().postFrameCallback(mLatencyPresentCallback);
+            }
+            mPendingInputTime = RefreshRecord.NOT_RECORDED;
+        }
+    };
 
     /**
-     * 在制定路径上添加波浪线
-     *
-     * @param src  需要添加波浪线的路径
-     * @param type 波浪线类型
+     * 绘制帧之后的下一帧，以其垂直同步时间作为上一帧的显示时间
      */
-    private void addWaveLineToPath(Path src, @LineType int type) {
-        final int width = getWidth() + 2 * mWaveWidth;
-        for (int i = 0, j = 0; i < width; i += mWaveWidth, j++) {
-            mCtrl.x = mWaveWidth * 0.5f;
-            switch (type) {
-                case TYPE_BACKGROUND:
-                    mCtrl.y = mPeakHeight;
-                    break;
-                case TYPE_DARK_WAVE:
-                    mCtrl.y = j % 2 == 0 ? -mPeakHeight : mPeakHeight;
-                    break;
-                case TYPE_LIGHT_WAVE:
-                    mCtrl.y = j % 2 == 0 ? mPeakHeight : -mPeakHeight;
-                    break;
+    private final Choreographer.FrameCallback mLatencyPresentCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            final long inputTime = mRenderingInputTime;
+            mRenderingInputTime = RefreshRecord.NOT_RECORDED;
+            if (mCurrentLatencyRecord != null) {
+                mCurrentLatencyRecord.add(Math.max(0, frameTimeNanos / 1000000 - inputTime));
+            }
+            if (mIsLatencyGestureEnded && mPendingInputTime == RefreshRecord.NOT_RECORDED) {
+                dispatchLatencyRecord();
             }
-            mDst.x = mWaveWidth;
-            mDst.y = 0;
-            src.rQuadTo(mCtrl.x, mCtrl.y, mDst.x, mDst.y);
         }
-    }
+    };
 
     /**
-     * 更新太阳路径
+     * 结束当前手势的延迟记录，有样本的记录会加入统计并通知监听器
      */
-    private void updateSunPath() {
-        if (mSunPath == null) mSunPath = new Path();
-        else mSunPath.reset();
-        mSunPath.addPath(mSunshinePath);
-        mSunPath.addCircle(0, 0, mRadiusInner, Path.Direction.CW);
+    private void dispatchLatencyRecord() {
+        final PullLatencyRecord record = mCurrentLatencyRecord;
+        mCurrentLatencyRecord = null;
+        if (record == null || record.getSampleCount() == 0) return;
+        mPullLatencyMetrics.add(record);
+        if (mOnPullLatencyListener != null) {
+            mOnPullLatencyListener.onPullLatencyRecorded(record, mPullLatencyMetrics);
+        }
     }
 
     @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        return onTouch(event);
+    public boolean shouldDelayChildPressedState() {
+        return true;
     }
 
     @Override
-    public boolean onInterceptTouchEvent(MotionEvent ev) {
-        return onTouch(ev);
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int expandSpec = MeasureSpec.makeMeasureSpec(Integer.MAX_VALUE >> 2, MeasureSpec.AT_MOST);
+        super.onMeasure(widthMeasureSpec, expandSpec);
     }
 
-    private boolean onTouch(MotionEvent event) {
-        initVelocityTracker(event);
-        final int scrollY = getScrollY();
-        switch (event.getAction()) {
-            case MotionEvent.ACTION_DOWN:
-                if (!mScroller.isFinished()) mScroller.abortAnimation();
-                mLastY = (int) event.getY();
-                break;
-            case MotionEvent.ACTION_MOVE:
-                final float currentY = event.getY();
-                int dY = (int) (currentY - mLastY);
-                mLastY = currentY;
-                if (Math.abs(dY) > 160) {//防止多点触控导致的跳跃
-                    return true;
-                }
-                if (scrollY < 0 && dY > 0) {
-                    dY /= (-scrollY / 160f + 1);
-                }
-                scrollBy(0, -dY);
-                updateDrawParams();
-                break;
-            case MotionEvent.ACTION_CANCEL:
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateDrawParams();
+        Rect rect = new Rect();
+        getGlobalVisibleRect(rect);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        mHeaderBottom = getHeaderBottom();
+        layoutHeaderView();
+        if (mPullMode == PULL_MODE_TRANSLATION) applyTranslationOffset();
+    }
+
+    /**
+     * 布局头部控件，其顶部向上延伸以覆盖下拉时露出的区域
+     */
+    private void layoutHeaderView() {
+        if (mHeaderView == null) return;
+        final int width = getWidth();
+        final int top = -Math.max(getHeight(), getResources().getDisplayMetrics().heightPixels);
+        mHeaderView.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(mHeaderBottom - top, MeasureSpec.EXACTLY));
+        mHeaderView.layout(0, top, width, mHeaderBottom);
+    }
+
+    /**
+     * 重绘头部
+     */
+    private void invalidateHeader() {
+        if (mHeaderView != null) mHeaderView.invalidate();
+        else invalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mHeaderView != null) return;
+        canvas.save();
+        if (mPullMode == PULL_MODE_TRANSLATION) canvas.translate(0, -mTranslationOffset);
+        drawHeader(canvas);
+        canvas.restore();
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        if (mMaxTextureSize == 0 && canvas.isHardwareAccelerated()) {
+            mMaxTextureSize = Math.min(canvas.getMaximumBitmapWidth(), canvas.getMaximumBitmapHeight());
+        }
+        canvas.save();//drawChild中的平移不会恢复，无内边距时父类也不保存画布，需在绘制ViewOverlay中的头部前恢复
+        super.dispatchDraw(canvas);
+        canvas.restore();
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        canvas.translate(0, getHeaderBottom());
+        return super.drawChild(canvas, child, drawingTime);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mIsAttached = true;
+        wakeAnimation();
+        WaveMemoryTrimmer.getInstance().register(getContext(), mTrimClient);
+        if (mIsRestoreInterrupted) {
+            mIsRestoreInterrupted = false;
+            startRestore(0);
+        }
+        if (mIsRefreshing && mRefreshTimeoutTime > 0) {//继续移出窗口前的超时计时，已超时的立即结束
+            removeCallbacks(mRefreshTimeoutRunnable);
+            postDelayed(mRefreshTimeoutRunnable, Math.max(0, mRefreshTimeoutTime - SystemClock.uptimeMillis()));
+        }
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateTickerSubscription();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateTickerSubscription();
+    }
+
+    /**
+     * 根据是否添加到窗口及是否可见，订阅或取消订阅共享动画节拍
+     *
+     * @see WaveAnimationTicker
+     */
+    private void updateTickerSubscription() {
+        final boolean shouldSubscribe = mIsAttached && !mIsAnimationFrozen
+                && getWindowVisibility() == VISIBLE && isShown();
+        if (shouldSubscribe == mIsTickerSubscribed) return;
+        mIsTickerSubscribed = shouldSubscribe;
+        if (shouldSubscribe) WaveAnimationTicker.getInstance().subscribe(mTickerSubscriber);
+        else WaveAnimationTicker.getInstance().unsubscribe(mTickerSubscriber);
+    }
+
+    /**
+     * 共享动画节拍订阅者，驱动波浪水平移动、太阳旋转及云朵移动
+     */
+    private WaveAnimationTicker.Subscriber mTickerSubscriber = new WaveAnimationTicker.Subscriber() {
+        @Override
+        public void onTick(int steps) {
+            final boolean isActive = isAnimationActive();
+            final long now = SystemClock.uptimeMillis();
+            if (isActive) {
+                mLastActiveTime = now;
+            } else if (mIdleFrameRate <= 0 || (mIdleFreezeDelay > 0 && now - mLastActiveTime >= mIdleFreezeDelay)) {
+                freezeAnimation();
+                return;
+            }
+            mPendingSteps += steps;
+            final int frameRate = isActive ? mActiveFrameRate : mIdleFrameRate;
+            final long frameInterval = 1000000000L / Math.max(1, frameRate);
+            final int stepsPerFrame = Math.max(1, Math.round(frameInterval / (float) WaveAnimationTicker.STEP_INTERVAL_NANOS));
+            if (mPendingSteps < stepsPerFrame) return;
+            steps = mPendingSteps;
+            mPendingSteps = 0;
+            if (mStateIndex > STATE_WAVE_HIDE) {
+                mRenderer.advance(steps, mIsRefreshable && mIsRefreshing, mRefreshProgress, getWidth());
+                invalidateHeader();
+            }
+        }
+    };
+
+    /**
+     * 是否处于拖动、回弹、滑动或刷新等活动状态，活动状态使用{@link #mActiveFrameRate}且不会冻结
+     *
+     * @return true表示活动，false表示空闲
+     */
+    private boolean isAnimationActive() {
+        return mActivePointerId != INVALID_POINTER || mIsRefreshing
+                || mRestoreSpring.isRunning() || !mScroller.isFinished();
+    }
+
+    /**
+     * 冻结环境动画，停止订阅共享动画节拍，波浪停留在当前相位
+     *
+     * @see #wakeAnimation()
+     */
+    private void freezeAnimation() {
+        mIsAnimationFrozen = true;
+        mPendingSteps = 0;
+        updateTickerSubscription();
+    }
+
+    /**
+     * 唤醒环境动画并重新开始空闲计时，在触摸、添加到窗口、恢复刷新状态及修改帧率设置时调用
+     */
+    private void wakeAnimation() {
+        mLastActiveTime = SystemClock.uptimeMillis();
+        mIsAnimationFrozen = false;
+        updateTickerSubscription();
+    }
+
+    /**
+     * 内存整理客户端，界面隐藏或内存紧张时释放可重建的缓存
+     *
+     * @see #releaseCaches()
+     */
+    private WaveMemoryTrimmer.Client mTrimClient = new WaveMemoryTrimmer.Client() {
+        @Override
+        public void onTrimMemory(int level) {
+            releaseCaches();
+        }
+    };
+
+    /**
+     * 释放云朵位图、阳光路径、波浪路径及网格等缓存，它们会在下一次绘制时按需重建。
+     * 正在触摸时保留速度追踪器
+     */
+    private void releaseCaches() {
+        mRenderer.releaseCaches();
+        if (mActivePointerId == INVALID_POINTER) releaseVelocityTracker();
+        invalidateHeader();
+    }
+
+    /**
+     * 获取头部底坐标
+     *
+     * @return 底部纵坐标
+     */
+    private int getHeaderBottom() {
+        final int count = getChildCount();
+        if (count <= 0) return 0;
+        View headerView = findChildByType(TYPE_CHILD_HEADER);
+        if (headerView == null) {
+            final View child = getChildAt(0);
+            LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            return mRenderer.getHeaderHeight() + lp.topMargin + child.getTop();
+        } else {
+            LayoutParams lp = (LayoutParams) headerView.getLayoutParams();
+            return lp.bottomMargin + headerView.getBottom();
+        }
+    }
+
+    /**
+     * 通过类型找到子控件
+     *
+     * @param target 类型值
+     * @return 找到的第一个该类型子控件
+     */
+    private View findChildByType(@ChildType int target) {
+        final int count = getChildCount();
+        for (int i = 0; i < count; i++) {
+            final View child = getChildAt(i);
+            LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            if (lp.childType == target) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 绘制头部，坐标与本控件一致
+     *
+     * @param canvas 画布
+     * @see HeaderView
+     */
+    private void drawHeader(Canvas canvas) {
+        if (mHeaderBottom == -1) mHeaderBottom = getHeaderBottom();
+        mRenderer.draw(canvas, getWidth(), getHeight(), getPullOffset(), mHeaderBottom, mStateIndex,
+                mIsRefreshing && mIsRefreshable);
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        if (mGestureRecorder != null) mGestureRecorder.record(ev);
+        return super.dispatchTouchEvent(ev);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        return onTouch(event);
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        return onTouch(ev);
+    }
+
+    private boolean onTouch(MotionEvent event) {
+        mTracer.beginSection(WaveTracer.SECTION_TOUCH);
+        try {
+            return handleTouch(event);
+        } finally {
+            mTracer.endSection();
+        }
+    }
+
+    /**
+     * 处理触摸事件
+     *
+     * @param event 触摸事件
+     * @return 是否消费该事件
+     * @see #onTouch(MotionEvent)
+     */
+    private boolean handleTouch(MotionEvent event) {
+        initVelocityTracker(event);
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                if (!mScroller.isFinished()) mScroller.abortAnimation();
+                cancelRestore();
+                mActivePointerId = event.getPointerId(0);
+                wakeAnimation();
+                startLatencyRecord(event);
+                mLastY = event.getY();
+                mPendingDY = 0;
+                mPredictedDY = 0;
+                break;
+            case MotionEvent.ACTION_POINTER_DOWN: {
+                final int index = event.getActionIndex();
+                mActivePointerId = event.getPointerId(index);
+                mLastY = event.getY(index);
+                onActivePointerChanged();
+                break;
+            }
+            case MotionEvent.ACTION_POINTER_UP:
+                onSecondaryPointerUp(event);
+                break;
+            case MotionEvent.ACTION_MOVE: {
+                final int index = event.findPointerIndex(mActivePointerId);
+                if (index < 0) return true;
+                final int historySize = event.getHistorySize();
+                final int offset = getPullOffset();
+                for (int h = 0; h < historySize; h++) {
+                    dragTo(event.getHistoricalY(index, h));
+                }
+                dragTo(event.getY(index));
+                if (mIsPredictiveDragEnabled) updatePrediction();
+                updateDrawParams();
+                if (getPullOffset() != offset) {
+                    markLatencyInput(historySize > 0 ? event.getHistoricalEventTime(0) : event.getEventTime());
+                }
+                break;
+            }
+            case MotionEvent.ACTION_CANCEL:
             case MotionEvent.ACTION_UP:
+                clearPrediction();
+                updateState();
+                mVelocityTracker.computeCurrentVelocity(1000);
+                final float velocityY = mVelocityTracker.getYVelocity(mActivePointerId);
                 if (mStateIndex > STATE_NORMAL) {
-                    mScrollYRestoreFrom = scrollY;
                     mIsRefreshing = mStateIndex == STATE_REFRESHABLE && mIsRefreshable;
                     mRefreshWhenFinish = mIsRefreshing;
-                    mRestoreAnim.start();
+                    if (mIsRefreshing) {
+                        mCurrentRecord = new RefreshRecord();
+                        mCurrentRecord.releaseTime = event.getEventTime();
+                    }
+                    startRestore(-applyDamping(velocityY));
                 } else {
-                    mVelocityTracker.computeCurrentVelocity(1000);
-                    int velocityY = (int) mVelocityTracker.getYVelocity();
-                    fling(-velocityY);
+                    fling(-(int) velocityY);
                 }
+                mActivePointerId = INVALID_POINTER;
+                mPendingDY = 0;
+                endLatencyRecord();
                 break;
         }
         updateState();
         return true;
     }
 
+    /**
+     * 非最后一个手指抬起时调用，若抬起的是当前跟踪的触摸点，则移交给另一个触摸点继续跟踪
+     *
+     * @param event {@link MotionEvent#ACTION_POINTER_UP}事件
+     */
+    private void onSecondaryPointerUp(MotionEvent event) {
+        final int index = event.getActionIndex();
+        if (event.getPointerId(index) == mActivePointerId) {
+            final int newIndex = index == 0 ? 1 : 0;
+            mActivePointerId = event.getPointerId(newIndex);
+            mLastY = event.getY(newIndex);
+            onActivePointerChanged();
+        }
+    }
+
+    /**
+     * 跟踪的触摸点切换后撤销按原触摸点做出的预测并重置速度追踪器，新触摸点从其实际位置开始拖动
+     */
+    private void onActivePointerChanged() {
+        clearPrediction();
+        if (mVelocityTracker != null) mVelocityTracker.clear();
+    }
+
+    /**
+     * 将跟踪的触摸点拖动到指定位置，在下拉超出顶部时施加阻尼
+     *
+     * @param y 触摸点纵坐标
+     */
+    private void dragTo(float y) {
+        float dY = y - mLastY;
+        mLastY = y;
+        dY = applyDamping(dY);
+        mPendingDY += dY;
+        final int step = (int) mPendingDY;
+        mPendingDY -= step;
+        if (step != 0) offsetBy(-step);
+    }
+
+    /**
+     * 计算下拉阻尼后的滑动距离
+     *
+     * @param dY 手指移动距离
+     * @return 实际滑动距离
+     */
+    private float applyDamping(float dY) {
+        final int scrollY = getPullOffset();
+        if (scrollY < 0 && dY > 0) {
+            dY /= (-scrollY / 160f + 1);
+        }
+        return dY;
+    }
+
+    /**
+     * 按速度追踪器对最近采样拟合的手指速度外推下一帧的位置，并将预测的差值应用到滑动上
+     */
+    private void updatePrediction() {
+        mVelocityTracker.computeCurrentVelocity(1000);
+        float predicted = mVelocityTracker.getYVelocity(mActivePointerId) * PREDICTION_TIME / 1000f;
+        predicted = Math.max(-MAX_PREDICTION_DISTANCE, Math.min(MAX_PREDICTION_DISTANCE, predicted));
+        final int target = (int) applyDamping(predicted);
+        if (target != mPredictedDY) {
+            offsetBy(mPredictedDY - target);
+            mPredictedDY = target;
+        }
+    }
+
+    /**
+     * 撤销预测的滑动距离，使控件回到手指实际对应的位置
+     */
+    private void clearPrediction() {
+        if (mPredictedDY != 0) {
+            offsetBy(mPredictedDY);
+            mPredictedDY = 0;
+        }
+    }
+
     /**
      * 初始化速度追踪器
      *
@@ -896,33 +1239,83 @@ public class WaveRefreshLayout extends LinearLayout {
      * @param velocityY Y方向速度
      */
     private void fling(int velocityY) {
-        final int scrollX = getScrollX();
-        final int scrollY = getScrollY();
-        mScroller.fling(scrollX, scrollY, 0, velocityY, 0, 0, 0, mScrollBottom);
+        mScroller.fling(0, getPullOffset(), 0, velocityY, 0, 0, 0, mScrollBottom);
         invalidate();
     }
 
     @Override
     public void computeScroll() {
-        updateDrawParams();
-        updateState();
-        if (mScroller.computeScrollOffset()) {
-            final int scrollX = mScroller.getCurrX();
-            final int scrollY = mScroller.getCurrY();
-            scrollTo(scrollX, scrollY);
-            postInvalidate();
+        mTracer.beginSection(WaveTracer.SECTION_COMPUTE_SCROLL);
+        try {
+            updateDrawParams();
+            updateState();
+            if (mScroller.computeScrollOffset()) {
+                offsetTo(mScroller.getCurrY());
+                postInvalidate();
+            }
+        } finally {
+            mTracer.endSection();
+        }
+    }
+
+    /**
+     * 获取下拉偏移，负值表示下拉，正值表示内容上滑
+     *
+     * @return 滚动方式下为scrollY，平移方式下为子控件平移量的相反数
+     * @see #setPullMode(int)
+     */
+    private int getPullOffset() {
+        return mPullMode == PULL_MODE_TRANSLATION ? mTranslationOffset : getScrollY();
+    }
+
+    /**
+     * 将下拉偏移设置为指定值
+     *
+     * @param offset 下拉偏移
+     * @see #getPullOffset()
+     */
+    private void offsetTo(int offset) {
+        if (mPullMode == PULL_MODE_TRANSLATION) {
+            if (mTranslationOffset == offset) return;
+            mTranslationOffset = offset;
+            applyTranslationOffset();
+        } else {
+            scrollTo(0, offset);
+        }
+    }
+
+    /**
+     * 将下拉偏移改变指定值
+     *
+     * @param dy 偏移变化量
+     * @see #getPullOffset()
+     */
+    private void offsetBy(int dy) {
+        offsetTo(getPullOffset() + dy);
+    }
+
+    /**
+     * 将平移方式下的下拉偏移应用到包括内部头部控件在内的所有子控件
+     */
+    private void applyTranslationOffset() {
+        final float translationY = -mTranslationOffset;
+        final int count = getChildCount();
+        for (int i = 0; i < count; i++) {
+            getChildAt(i).setTranslationY(translationY);
         }
+        if (mHeaderView != null) mHeaderView.setTranslationY(translationY);
     }
 
     /**
-     * 更新绘制参数，在scrollY 发生变化后调用
+     * 更新绘制参数，在下拉偏移发生变化后调用
      *
-     * @see #getScrollY()
+     * @see #getPullOffset()
      */
     private void updateDrawParams() {
-        final int scrollY = getScrollY();
-        mPeakHeight = mInitialPeakHeight - scrollY / 16f;
+        final int scrollY = getPullOffset();
+        mRenderer.updatePeakHeight(scrollY);
         if (!mIsRefreshing) rotateSunTo(scrollY / 3f);
+        invalidateHeader();
     }
 
     /**
@@ -931,33 +1324,151 @@ public class WaveRefreshLayout extends LinearLayout {
      * @see #mStateIndex
      */
     private void updateState() {
-        final int scrollY = getScrollY();
-        final int showSunY = (int) (WAVE_BASELINE_OFFSET + mPeakHeight + mRadiusOuter + mSunshineLength - SUN_CENTER_OFFSET);
-        if (scrollY <= -MIN_REFRESH_HEIGHT) {
-            mStateIndex = STATE_REFRESHABLE;
-        } else if (scrollY < showSunY) {
-            mStateIndex = STATE_SHOW_SUN;
-        } else if (scrollY < 0) {
-            mStateIndex = STATE_PULL_TO_REFRESH;
-        } else if (scrollY < WAVE_BASELINE_OFFSET + mPeakHeight) {
-            mStateIndex = STATE_NORMAL;
-        } else if (scrollY < mHeaderBottom) {
-            mStateIndex = STATE_WAVE_HIDE;
-        } else {
-            mStateIndex = STATE_HEADER_HIDE;
-        }
+        final int oldState = mStateIndex;
+        final int scrollY = getPullOffset();
+        mStateIndex = mRenderer.computeState(scrollY, mHeaderBottom);
+        updateContentLayers();
         if (mIsRefreshing) {
             if (mStateIndex != STATE_REFRESHABLE) {//刷新过程中被滑回
                 finishRefresh(true);
             }
         }
+        if (mStateIndex <= STATE_NORMAL) {
+            mIsRefreshLikelyNotified = false;
+        }
+        if (mOnPullStateListener != null) {
+            if (oldState != mStateIndex) {
+                mOnPullStateListener.onStateChanged(oldState, mStateIndex);
+            }
+            if (!mIsRefreshing && mIsRefreshable && !mIsRefreshLikelyNotified
+                    && -scrollY >= WaveHeaderRenderer.MIN_REFRESH_HEIGHT * mRefreshLikelyFraction) {
+                mIsRefreshLikelyNotified = true;
+                mOnPullStateListener.onRefreshLikely();
+            }
+        }
+    }
+
+    /**
+     * 头部露出或正在回弹时将内容子控件提升为硬件层，内容仅发生移动，每帧只需合成一次纹理而无需重绘其子树；
+     * 回到初始位置后释放硬件层。已自行设置了图层的子控件不受影响。
+     * 仅在硬件加速时生效，否则硬件层会退化为软件绘制缓存。本控件测量时不限制子控件高度，
+     * 高于窗口可见区域或超出最大纹理尺寸的子控件大部分内容不可见且可能无法生成纹理，保持无图层
+     */
+    private void updateContentLayers() {
+        final boolean shouldCache = mIsContentLayerEnabled && mIsAttached && isHardwareAccelerated()
+                && (mStateIndex > STATE_NORMAL || mRestoreSpring.isRunning());
+        if (shouldCache == mIsContentLayered) return;
+        mIsContentLayered = shouldCache;
+        if (shouldCache) {
+            getWindowVisibleDisplayFrame(mWindowFrame);
+            int maxWidth = Integer.MAX_VALUE;
+            int maxHeight = mWindowFrame.height();
+            if (mMaxTextureSize > 0) {
+                maxWidth = mMaxTextureSize;
+                maxHeight = Math.min(maxHeight, mMaxTextureSize);
+            }
+            final int count = getChildCount();
+            for (int i = 0; i < count; i++) {
+                final View child = getChildAt(i);
+                if (child.getLayerType() != LAYER_TYPE_NONE
+                        || child.getWidth() > maxWidth || child.getHeight() > maxHeight) continue;
+                child.setLayerType(LAYER_TYPE_HARDWARE, null);
+                mLayeredChildren.add(child);
+            }
+        } else {
+            releaseContentLayers();
+        }
+    }
+
+    /**
+     * 释放内容子控件的硬件层
+     *
+     * @see #updateContentLayers()
+     */
+    private void releaseContentLayers() {
+        mIsContentLayered = false;
+        for (View child : mLayeredChildren) {
+            if (child.getLayerType() == LAYER_TYPE_HARDWARE) child.setLayerType(LAYER_TYPE_NONE, null);
+        }
+        mLayeredChildren.clear();
+    }
+
+    /**
+     * 获取当前状态
+     *
+     * @return {@link State}中的一种
+     */
+    @State
+    public int getState() {
+        return mStateIndex;
+    }
+
+    /**
+     * 是否正处于获取数据的刷新状态，即已回调{@link OnRefreshListener#onAcquireData()}但尚未完成刷新
+     *
+     * @return true表示正在刷新，false则相反
+     */
+    public boolean isRefreshing() {
+        return mIsRefreshing && mRefreshWhenFinish && !mRestoreSpring.isRunning();
+    }
+
+    /**
+     * 获取上次刷新完成的时间
+     *
+     * @return {@link System#currentTimeMillis()}格式的时间，从未刷新时为0
+     */
+    public long getLastRefreshTime() {
+        return mLastRefreshTime;
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState ss = new SavedState(super.onSaveInstanceState());
+        ss.isRefreshing = isRefreshing();
+        ss.scrollY = getPullOffset();
+        ss.lastRefreshTime = mLastRefreshTime;
+        return ss;
+    }
+
+    /**
+     * 恢复状态，重建前仍在刷新时直接显示刷新中的头部，不会再次回调{@link OnRefreshListener#onAcquireData()}，
+     * 数据获取完成后仍需调用{@link #finishRefresh()}
+     */
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState ss = (SavedState) state;
+        super.onRestoreInstanceState(ss.getSuperState());
+        mLastRefreshTime = ss.lastRefreshTime;
+        if (ss.isRefreshing && mIsRefreshable) {
+            mIsRefreshing = true;
+            mRefreshWhenFinish = true;
+            offsetTo(-WaveHeaderRenderer.MIN_REFRESH_HEIGHT);
+            scheduleRefreshTimeout();
+            wakeAnimation();
+        } else {
+            offsetTo(Math.max(0, ss.scrollY));
+        }
+        updateDrawParams();
+        updateState();
     }
 
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
-        stopUpdateViewThread();
+        mIsAttached = false;
+        mIsRestoreInterrupted = mRestoreSpring.isRunning() && mIsRefreshing && mRefreshWhenFinish;
+        cancelRestore();
+        removeCallbacks(mRefreshTimeoutRunnable);
+        updateTickerSubscription();
         releaseVelocityTracker();
+        releaseContentLayers();
+        WaveMemoryTrimmer.getInstance().unregister(mTrimClient);
+        cancelLatencyFrames();
+        mCurrentLatencyRecord = null;
     }
 
     // 此处以下为setter和getter
@@ -974,7 +1485,7 @@ public class WaveRefreshLayout extends LinearLayout {
      * @param degree 旋转的角度值
      */
     private void rotateSunBy(float degree) {
-        mSunRotateDegree += degree;
+        mRenderer.sunRotateDegree += degree;
     }
 
     /**
@@ -983,7 +1494,33 @@ public class WaveRefreshLayout extends LinearLayout {
      * @param degree 目标角度
      */
     private void rotateSunTo(float degree) {
-        mSunRotateDegree = degree;
+        mRenderer.sunRotateDegree = degree;
+    }
+
+    /**
+     * 直接设置下拉偏移并更新绘制参数及状态，用于确定性渲染测试
+     *
+     * @param scrollY 纵向偏移，负值表示下拉
+     */
+    @VisibleForTesting
+    void setPullOffset(int scrollY) {
+        offsetTo(scrollY);
+        updateDrawParams();
+        updateState();
+    }
+
+    /**
+     * 直接设置动画帧参数，替代共享动画节拍，用于确定性渲染测试
+     *
+     * @param horizontalOffset 波浪水平偏移
+     * @param sunRotateDegree  太阳旋转角度
+     * @param cloudX           云朵横坐标
+     */
+    @VisibleForTesting
+    void setAnimationFrame(float horizontalOffset, float sunRotateDegree, int cloudX) {
+        mRenderer.horizontalOffset = horizontalOffset;
+        mRenderer.sunRotateDegree = sunRotateDegree;
+        mRenderer.cloudX = cloudX;
     }
 
     /**
@@ -992,7 +1529,7 @@ public class WaveRefreshLayout extends LinearLayout {
      * @return 波峰初始高度
      */
     public float getInitialPeakHeight() {
-        return mInitialPeakHeight;
+        return mRenderer.getStyle().peakHeight;
     }
 
     /**
@@ -1001,7 +1538,7 @@ public class WaveRefreshLayout extends LinearLayout {
      * @param height 波峰初始高度
      */
     public void setInitialPeakHeight(int height) {
-        mInitialPeakHeight = height;
+        setWaveStyle(mRenderer.getStyle().buildUpon().setPeakHeight(height).build());
     }
 
     /**
@@ -1010,7 +1547,7 @@ public class WaveRefreshLayout extends LinearLayout {
      * @return 颜色值
      */
     public int getWaveColorDark() {
-        return mWaveColorDark;
+        return mRenderer.getStyle().waveColorDark;
     }
 
     /**
@@ -1019,7 +1556,7 @@ public class WaveRefreshLayout extends LinearLayout {
      * @param color 要设置的颜色
      */
     public void setWaveColorDark(@ColorInt int color) {
-        mWaveColorDark = color;
+        setWaveStyle(mRenderer.getStyle().buildUpon().setWaveColorDark(color).build());
     }
 
     /**
@@ -1028,7 +1565,7 @@ public class WaveRefreshLayout extends LinearLayout {
      * @return 颜色值
      */
     public int getWaveColorLight() {
-        return mWaveColorLight;
+        return mRenderer.getStyle().waveColorLight;
     }
 
     /**
@@ -1037,7 +1574,25 @@ public class WaveRefreshLayout extends LinearLayout {
      * @param color 要设置的颜色
      */
     public void setWaveColorLight(@ColorInt int color) {
-        mWaveColorLight = color;
+        setWaveStyle(mRenderer.getStyle().buildUpon().setWaveColorLight(color).build());
+    }
+
+    /**
+     * 获取云朵颜色
+     *
+     * @return 颜色值
+     */
+    public int getCloudColor() {
+        return mRenderer.getStyle().cloudColor;
+    }
+
+    /**
+     * 设置云朵颜色，后方云朵会在该颜色的基础上降低透明度
+     *
+     * @param color 要设置的颜色
+     */
+    public void setCloudColor(@ColorInt int color) {
+        setWaveStyle(mRenderer.getStyle().buildUpon().setCloudColor(color).build());
     }
 
     /**
@@ -1046,16 +1601,227 @@ public class WaveRefreshLayout extends LinearLayout {
      * @return 回弹时间的毫秒数
      */
     public long getRestoreDuration() {
-        return mRestoreDuration;
+        return mRenderer.getStyle().restoreDuration;
     }
 
     /**
-     * 获取波浪弹回时间
+     * 设置波浪弹回时间，即回弹弹簧从静止开始弹回到基本停止所需的时间，松手速度会使实际回弹更快
      *
      * @param duration 毫秒数
      */
     public void setRestoreDuration(long duration) {
-        mRestoreDuration = duration;
+        setWaveStyle(mRenderer.getStyle().buildUpon().setRestoreDuration(duration).build());
+    }
+
+    /**
+     * 获取波浪样式
+     *
+     * @return 当前样式
+     */
+    public WaveStyle getWaveStyle() {
+        return mRenderer.getStyle();
+    }
+
+    /**
+     * 设置波浪样式，一次性更新画笔、回弹时间及几何缓存并只重绘一次。
+     * 同一样式可设置给多个控件，太阳路径、云朵位图等预计算资源在它们之间共享
+     *
+     * @param style 波浪样式
+     * @see WaveStyle#fromStyleResource(Context, int)
+     * @see WaveStyle.Builder
+     */
+    public void setWaveStyle(WaveStyle style) {
+        if (style == null) throw new IllegalArgumentException("样式不能为空");
+        final WaveStyle oldStyle = mRenderer.getStyle();
+        if (oldStyle == style) return;
+        mRenderer.setStyle(style);
+        mRestoreSpring.setSettleDuration(style.restoreDuration);
+        if (mRenderer.cloudX > getWidth() + style.cloudWidth) mRenderer.cloudX = 0;
+        final boolean isHeaderResized = oldStyle.peakHeight != style.peakHeight;
+        if (isHeaderResized) requestLayout();
+        updateDrawParams();
+    }
+
+    /**
+     * 获取波浪绘制方式
+     *
+     * @return {@link #RENDER_MODE_PATH}或{@link #RENDER_MODE_MESH}
+     */
+    @RenderMode
+    public int getWaveRenderMode() {
+        return mRenderer.getRenderMode();
+    }
+
+    /**
+     * 设置波浪绘制方式
+     *
+     * @param mode {@link #RENDER_MODE_PATH}或{@link #RENDER_MODE_MESH}
+     */
+    public void setWaveRenderMode(@RenderMode int mode) {
+        if (mRenderer.getRenderMode() == mode) return;
+        mRenderer.setRenderMode(mode);
+        invalidateHeader();
+    }
+
+    /**
+     * 获取下拉偏移方式
+     *
+     * @return {@link #PULL_MODE_SCROLL}或{@link #PULL_MODE_TRANSLATION}
+     */
+    @PullMode
+    public int getPullMode() {
+        return mPullMode;
+    }
+
+    /**
+     * 设置下拉偏移方式，切换时保留当前偏移
+     *
+     * @param mode {@link #PULL_MODE_SCROLL}或{@link #PULL_MODE_TRANSLATION}
+     */
+    public void setPullMode(@PullMode int mode) {
+        if (mPullMode == mode) return;
+        final int offset = getPullOffset();
+        if (mPullMode == PULL_MODE_TRANSLATION) {
+            mTranslationOffset = 0;
+            applyTranslationOffset();
+        } else {
+            scrollTo(0, 0);
+        }
+        mPullMode = mode;
+        offsetTo(offset);
+        invalidateHeader();
+    }
+
+    /**
+     * 是否开启预测拖动模式
+     *
+     * @return true表示开启，false则相反
+     */
+    public boolean isPredictiveDragEnabled() {
+        return mIsPredictiveDragEnabled;
+    }
+
+    /**
+     * 设置是否开启预测拖动模式，开启后会根据手指速度外推下一帧的位置，减少拖动时的视觉延迟
+     *
+     * @param enabled true表示开启，false则相反
+     */
+    public void setPredictiveDragEnabled(boolean enabled) {
+        mIsPredictiveDragEnabled = enabled;
+        if (!enabled) clearPrediction();
+    }
+
+    /**
+     * 是否在下拉、回弹及刷新期间将内容子控件缓存为硬件层
+     *
+     * @return true表示开启，false则相反
+     */
+    public boolean isContentLayerEnabled() {
+        return mIsContentLayerEnabled;
+    }
+
+    /**
+     * 设置是否在下拉、回弹及刷新期间将内容子控件缓存为硬件层，默认开启。
+     * 内容在此期间自身频繁变化（如播放动画）时，硬件层每帧都需重建，可关闭以避免额外开销。
+     * 未开启硬件加速或子控件高于本控件时该子控件不会被缓存
+     *
+     * @param enabled true表示开启，false则相反
+     */
+    public void setContentLayerEnabled(boolean enabled) {
+        mIsContentLayerEnabled = enabled;
+        updateContentLayers();
+    }
+
+    /**
+     * 获取活动状态下的环境动画帧率上限
+     *
+     * @return 每秒帧数
+     */
+    public int getActiveFrameRate() {
+        return mActiveFrameRate;
+    }
+
+    /**
+     * 设置拖动、回弹、滑动或刷新期间的环境动画帧率上限，默认为60。
+     * 帧率降低时每次重绘移动的距离相应增大，动画整体速度不变
+     *
+     * @param frameRate 每秒帧数，必须大于0
+     */
+    public void setActiveFrameRate(int frameRate) {
+        if (frameRate <= 0) throw new IllegalArgumentException("帧率必须大于0");
+        mActiveFrameRate = frameRate;
+        wakeAnimation();
+    }
+
+    /**
+     * 获取空闲时的环境动画帧率上限
+     *
+     * @return 每秒帧数，为0时空闲即静止
+     */
+    public int getIdleFrameRate() {
+        return mIdleFrameRate;
+    }
+
+    /**
+     * 设置空闲时的环境动画帧率上限，默认为60，可降低为15至30以减少空闲时的重绘。
+     * 为0时空闲即静止，不再订阅动画节拍，直到下一次触摸或刷新
+     *
+     * @param frameRate 每秒帧数，不能为负数
+     */
+    public void setIdleFrameRate(int frameRate) {
+        if (frameRate < 0) throw new IllegalArgumentException("帧率不能为负数");
+        mIdleFrameRate = frameRate;
+        wakeAnimation();
+    }
+
+    /**
+     * 获取空闲冻结时间
+     *
+     * @return 毫秒数，为0时不冻结
+     */
+    public long getIdleFreezeDelay() {
+        return mIdleFreezeDelay;
+    }
+
+    /**
+     * 设置空闲冻结时间，空闲超过该时间后环境动画停止，直到下一次触摸或刷新
+     *
+     * @param delay 毫秒数，为0时不冻结
+     */
+    public void setIdleFreezeDelay(long delay) {
+        if (delay < 0) throw new IllegalArgumentException("冻结时间不能为负数");
+        mIdleFreezeDelay = delay;
+        wakeAnimation();
+    }
+
+    /**
+     * 获取刷新超时时间
+     *
+     * @return 毫秒数，为0时不限制
+     */
+    public long getRefreshTimeout() {
+        return mRefreshTimeout;
+    }
+
+    /**
+     * 设置刷新超时时间，回调{@link OnRefreshListener#onAcquireData()}后超过该时间仍未调用{@link #finishRefresh()}时，
+     * 将自动完成刷新并回调{@link OnRefreshTimeoutListener#onRefreshTimeout(long)}，对下一次刷新生效
+     *
+     * @param timeout 毫秒数，为0时不限制
+     */
+    public void setRefreshTimeout(long timeout) {
+        if (timeout < 0) throw new IllegalArgumentException("超时时间不能为负数");
+        mRefreshTimeout = timeout;
+    }
+
+    /**
+     * 设置刷新超时监听器
+     *
+     * @param onRefreshTimeoutListener 刷新超时监听器
+     * @see #setRefreshTimeout(long)
+     */
+    public void setOnRefreshTimeoutListener(OnRefreshTimeoutListener onRefreshTimeoutListener) {
+        mOnRefreshTimeoutListener = onRefreshTimeoutListener;
     }
 
     /**
@@ -1086,6 +1852,193 @@ public class WaveRefreshLayout extends LinearLayout {
         mOnRefreshListener = onRefreshListener;
     }
 
+    /**
+     * 设置下拉状态监听器
+     *
+     * @param onPullStateListener 下拉状态监听器
+     * @see OnPullStateListener
+     */
+    public void setOnPullStateListener(OnPullStateListener onPullStateListener) {
+        mOnPullStateListener = onPullStateListener;
+    }
+
+    OnPullStateListener getOnPullStateListener() {
+        return mOnPullStateListener;
+    }
+
+    /**
+     * 获取触发{@link OnPullStateListener#onRefreshLikely()}的下拉比例
+     *
+     * @return 相对于刷新高度的比例
+     */
+    public float getRefreshLikelyFraction() {
+        return mRefreshLikelyFraction;
+    }
+
+    /**
+     * 设置触发{@link OnPullStateListener#onRefreshLikely()}的下拉比例
+     *
+     * @param fraction 相对于刷新高度的比例，取值范围为(0, 1]
+     */
+    public void setRefreshLikelyFraction(float fraction) {
+        if (fraction <= 0 || fraction > 1) throw new IllegalArgumentException("比例需在(0, 1]范围内");
+        mRefreshLikelyFraction = fraction;
+    }
+
+    /**
+     * 下拉状态监听器
+     *
+     * @see #setOnPullStateListener(OnPullStateListener)
+     */
+    public interface OnPullStateListener {
+
+        /**
+         * 状态发生变化，相同状态不会重复回调
+         *
+         * @param oldState 变化前的状态
+         * @param newState 变化后的状态
+         */
+        void onStateChanged(@State int oldState, @State int newState);
+
+        /**
+         * 下拉距离超过{@link #setRefreshLikelyFraction(float)}设置的比例，即将松手刷新，
+         * 可在此预先建立连接或发起请求，每次下拉仅回调一次
+         */
+        void onRefreshLikely();
+    }
+
+    /**
+     * 获取刷新耗时统计
+     *
+     * @return 最近若干次刷新的耗时统计
+     */
+    public RefreshMetrics getRefreshMetrics() {
+        return mRefreshMetrics;
+    }
+
+    /**
+     * 设置刷新耗时监听器
+     *
+     * @param onRefreshMetricsListener 刷新耗时监听器
+     * @see OnRefreshMetricsListener
+     */
+    public void setOnRefreshMetricsListener(OnRefreshMetricsListener onRefreshMetricsListener) {
+        mOnRefreshMetricsListener = onRefreshMetricsListener;
+    }
+
+    /**
+     * 获取下拉延迟统计
+     *
+     * @return 最近若干次手势的延迟统计
+     */
+    public PullLatencyMetrics getPullLatencyMetrics() {
+        return mPullLatencyMetrics;
+    }
+
+    /**
+     * 设置下拉延迟监听器
+     *
+     * @param onPullLatencyListener 下拉延迟监听器
+     * @see OnPullLatencyListener
+     */
+    public void setOnPullLatencyListener(OnPullLatencyListener onPullLatencyListener) {
+        mOnPullLatencyListener = onPullLatencyListener;
+    }
+
+    /**
+     * 刷新超时监听器
+     *
+     * @see #setOnRefreshTimeoutListener(OnRefreshTimeoutListener)
+     */
+    public interface OnRefreshTimeoutListener {
+
+        /**
+         * 刷新超时，回调后将自动完成刷新，随后照常回调{@link OnRefreshListener#onLoadData()}
+         *
+         * @param timeout 超时时间的毫秒数
+         */
+        void onRefreshTimeout(long timeout);
+    }
+
+    /**
+     * 刷新耗时监听器
+     *
+     * @see #setOnRefreshMetricsListener(OnRefreshMetricsListener)
+     */
+    public interface OnRefreshMetricsListener {
+
+        /**
+         * 一次刷新完成，在{@link OnRefreshListener#onLoadData()}之后回调
+         *
+         * @param record  本次刷新的耗时记录
+         * @param metrics 包含本次记录在内的耗时统计
+         */
+        void onRefreshRecorded(RefreshRecord record, RefreshMetrics metrics);
+    }
+
+    /**
+     * 下拉延迟监听器
+     *
+     * @see #setOnPullLatencyListener(OnPullLatencyListener)
+     */
+    public interface OnPullLatencyListener {
+
+        /**
+         * 一次手势结束，在其最后一个输入对应的帧显示后回调，未改变下拉位置的手势不会回调
+         *
+         * @param record  本次手势的延迟记录
+         * @param metrics 包含本次记录在内的延迟统计
+         */
+        void onPullLatencyRecorded(PullLatencyRecord record, PullLatencyMetrics metrics);
+    }
+
+    /**
+     * 设置性能追踪器，传入null时恢复为不做任何操作的{@link WaveTracer#NONE}
+     *
+     * @param tracer 性能追踪器
+     * @see SystemTracer
+     * @see RecordingTracer
+     */
+    public void setTracer(WaveTracer tracer) {
+        mTracer = tracer == null ? WaveTracer.NONE : tracer;
+        mRenderer.setTracer(mTracer);
+    }
+
+    WaveTracer getTracer() {
+        return mTracer;
+    }
+
+    /**
+     * 设置触摸事件记录器，用于采集真实手势以便通过{@link GestureReplayer}回放，传入null时停止记录
+     *
+     * @param gestureRecorder 触摸事件记录器
+     */
+    public void setGestureRecorder(GestureRecorder gestureRecorder) {
+        mGestureRecorder = gestureRecorder;
+    }
+
+    /**
+     * 获取所属刷新组
+     *
+     * @return 刷新组，未加入时为null
+     */
+    public RefreshGroup getRefreshGroup() {
+        return mRefreshGroup;
+    }
+
+    /**
+     * 加入刷新组，与组内其它控件合并进行中的数据获取，传入null时离开当前刷新组
+     *
+     * @param refreshGroup 刷新组
+     * @see RefreshGroup
+     */
+    public void setRefreshGroup(RefreshGroup refreshGroup) {
+        if (mRefreshGroup == refreshGroup) return;
+        if (mRefreshGroup != null) mRefreshGroup.remove(this);
+        mRefreshGroup = refreshGroup;
+        if (refreshGroup != null && isRefreshing()) refreshGroup.join(this);//已在刷新时沿用进行中的获取
+    }
+
     /**
      * 界面刷新监听器
      *
@@ -1123,6 +2076,80 @@ public class WaveRefreshLayout extends LinearLayout {
         return p instanceof LayoutParams;
     }
 
+    /**
+     * 内部头部控件，将绘制委托给{@link #drawHeader(Canvas)}。
+     * 位于本控件的{@link android.view.ViewOverlay}中，不计入{@link #getChildCount()}等子控件访问方法，
+     * 也不接收触摸事件
+     */
+    @RequiresApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private class HeaderView extends View {
+
+        HeaderView(Context context) {
+            super(context);
+            setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_NO);
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            canvas.save();
+            canvas.translate(0, -getTop());
+            drawHeader(canvas);
+            canvas.restore();
+        }
+    }
+
+    /**
+     * 配置变更时保存的刷新状态
+     */
+    static class SavedState extends BaseSavedState {
+
+        /**
+         * 是否正在刷新
+         */
+        boolean isRefreshing;
+
+        /**
+         * 下拉或滑动偏移
+         */
+        int scrollY;
+
+        /**
+         * 上次刷新完成的时间
+         */
+        long lastRefreshTime;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            isRefreshing = in.readInt() != 0;
+            scrollY = in.readInt();
+            lastRefreshTime = in.readLong();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(isRefreshing ? 1 : 0);
+            out.writeInt(scrollY);
+            out.writeLong(lastRefreshTime);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
     public static class LayoutParams extends LinearLayout.LayoutParams {
 
         /**
@@ -0,0 +1,479 @@
+package com.felix.waverefreshlayout.library;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.graphics.Path;
+import android.support.annotation.ColorInt;
+import android.support.annotation.StyleRes;
+import android.util.SparseArray;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * 不可变的波浪样式，包含颜色、尺寸及回弹时间，可在多个{@link WaveRefreshLayout}之间共享。
+ * 样式持有由其参数决定的预计算资源，包括太阳路径和云朵位图，共享同一样式的控件只需构建一次。
+ * 相同参数的样式会被合并为同一个实例，仅可在主线程中使用
+ *
+ * @author Felix
+ * @see WaveRefreshLayout#setWaveStyle(WaveStyle)
+ */
+public final class WaveStyle {
+
+    /**
+     * 太阳内圆半径比外圆半径小的距离
+     */
+    private static final int SUN_RING_WIDTH = 9;
+
+    /**
+     * 太阳的光线数
+     */
+    private static final int NUMBER_OF_SUNSHINE = 12;
+
+    /**
+     * 已创建的样式，用于合并相同参数的样式
+     */
+    private static final WeakHashMap<WaveStyle, WeakReference<WaveStyle>> sInterned = new WeakHashMap<>();
+
+    /**
+     * 由样式资源创建的样式，以资源id为键，记录解析时的主题及配置
+     */
+    private static final SparseArray<StyleResourceEntry> sStyleResources = new SparseArray<>();
+
+    final int waveColorLight;
+
+    final int waveColorDark;
+
+    final int backgroundColor;
+
+    final int sunColor;
+
+    final int cloudColor;
+
+    final int peakHeight;
+
+    final int waveWidth;
+
+    final int sunRadius;
+
+    final int sunshineLength;
+
+    final int cloudWidth;
+
+    final int cloudHeight;
+
+    final long restoreDuration;
+
+    /**
+     * 太阳路径，包含光线、外圆及镂空的内圆，以太阳中心为原点
+     */
+    private Path mSunPath;
+
+    /**
+     * 云朵透明度遮罩位图，格式为{@link Bitmap.Config#ALPHA_8}
+     */
+    private Bitmap mCloudBitmap;
+
+    private WaveStyle(Builder builder) {
+        waveColorLight = builder.mWaveColorLight;
+        waveColorDark = builder.mWaveColorDark;
+        backgroundColor = builder.mBackgroundColor;
+        sunColor = builder.mSunColor;
+        cloudColor = builder.mCloudColor;
+        peakHeight = builder.mPeakHeight;
+        waveWidth = builder.mWaveWidth;
+        sunRadius = builder.mSunRadius;
+        sunshineLength = builder.mSunshineLength;
+        cloudWidth = builder.mCloudWidth;
+        cloudHeight = builder.mCloudHeight;
+        restoreDuration = builder.mRestoreDuration;
+    }
+
+    /**
+     * 由样式资源创建样式，同一资源在相同主题及配置下只解析一次，
+     * 主题、屏幕密度或夜间模式等配置变化后会重新解析
+     *
+     * @param context  上下文
+     * @param styleRes 包含{@code WaveRefreshLayout}属性的样式资源
+     * @return 样式
+     */
+    public static WaveStyle fromStyleResource(Context context, @StyleRes int styleRes) {
+        final Resources.Theme theme = context.getTheme();
+        final Configuration configuration = context.getResources().getConfiguration();
+        final StyleResourceEntry entry = sStyleResources.get(styleRes);
+        WaveStyle style = entry == null ? null : entry.get(theme, configuration);
+        if (style == null) {
+            TypedArray a = context.obtainStyledAttributes(styleRes, R.styleable.WaveRefreshLayout);
+            style = fromTypedArray(a);
+            a.recycle();
+            sStyleResources.put(styleRes, new StyleResourceEntry(theme, configuration, style));
+        }
+        return style;
+    }
+
+    /**
+     * 由已获取的{@code WaveRefreshLayout}属性创建样式，不回收属性数组
+     *
+     * @param a 属性数组
+     * @return 样式
+     */
+    static WaveStyle fromTypedArray(TypedArray a) {
+        final Builder defaults = new Builder();
+        final Builder builder = new Builder()
+                .setWaveColorLight(a.getColor(R.styleable.WaveRefreshLayout_colorWaveLight, defaults.mWaveColorLight))
+                .setWaveColorDark(a.getColor(R.styleable.WaveRefreshLayout_colorWaveDark, defaults.mWaveColorDark))
+                .setBackgroundColor(a.getColor(R.styleable.WaveRefreshLayout_colorBackground, defaults.mBackgroundColor))
+                .setSunColor(a.getColor(R.styleable.WaveRefreshLayout_colorSun, defaults.mSunColor))
+                .setCloudColor(a.getColor(R.styleable.WaveRefreshLayout_colorCloud, defaults.mCloudColor))
+                .setPeakHeight(a.getDimensionPixelSize(R.styleable.WaveRefreshLayout_peakHeight, defaults.mPeakHeight))
+                .setWaveWidth(a.getDimensionPixelSize(R.styleable.WaveRefreshLayout_waveWidth, defaults.mWaveWidth))
+                .setSunshineLength(a.getDimensionPixelOffset(R.styleable.WaveRefreshLayout_sunshineLength,
+                        defaults.mSunshineLength))
+                .setCloudSize(a.getDimensionPixelSize(R.styleable.WaveRefreshLayout_cloudWidth, defaults.mCloudWidth),
+                        a.getDimensionPixelOffset(R.styleable.WaveRefreshLayout_cloudHeight, defaults.mCloudHeight))
+                .setRestoreDuration(a.getInt(R.styleable.WaveRefreshLayout_restoreDuration,
+                        (int) defaults.mRestoreDuration));
+        //布局中的太阳半径不经setSunRadius校验，与引入样式前一致，过小的半径不绘制内圆而不是加载时崩溃
+        builder.mSunRadius = a.getDimensionPixelOffset(R.styleable.WaveRefreshLayout_sunRadius, defaults.mSunRadius);
+        return builder.build();
+    }
+
+    /**
+     * 创建以当前样式为初始值的构建器，用于派生新样式
+     *
+     * @return 构建器
+     */
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    /**
+     * 获取太阳路径，首次调用时构建
+     *
+     * @return 以太阳中心为原点的路径，调用方不得修改
+     */
+    Path getSunPath() {
+        if (mSunPath == null) {
+            final Path path = new Path();
+            final int dis = sunRadius + sunshineLength;
+            float degree = 180f / NUMBER_OF_SUNSHINE;
+            float radian = (float) Math.toRadians(degree);
+            path.moveTo(0, -dis);
+            float j = radian;
+            for (int i = 0; i < NUMBER_OF_SUNSHINE; i++, j += 2 * radian) {
+                path.lineTo((float) (sunRadius * Math.sin(j)), -(float) (sunRadius * Math.cos(j)));
+                path.lineTo((float) (dis * Math.sin(j + radian)), -(float) (dis * Math.cos(radian + j)));
+            }
+            path.close();
+            path.addCircle(0, 0, sunRadius - 3, Path.Direction.CCW);
+            path.addCircle(0, 0, getSunInnerRadius(), Path.Direction.CW);
+            mSunPath = path;
+        }
+        return mSunPath;
+    }
+
+    /**
+     * 获取云朵透明度遮罩位图，首次调用时解码，仅保留透明度，内存占用为ARGB_8888的四分之一
+     *
+     * @param res 用于解码云朵图片的资源
+     * @return 云朵位图，调用方不得修改或回收
+     */
+    Bitmap getCloudBitmap(Resources res) {
+        if (mCloudBitmap == null) {
+            Bitmap temp = BitmapFactory.decodeResource(res, R.drawable.ic_cloud);
+            Bitmap scaled = Bitmap.createScaledBitmap(temp, cloudWidth, cloudHeight, true);
+            if (scaled != temp) temp.recycle();
+            mCloudBitmap = scaled.extractAlpha();
+            scaled.recycle();
+        }
+        return mCloudBitmap;
+    }
+
+    /**
+     * 释放预计算资源，下次使用时重新构建。位图交由垃圾回收释放，因为已记录的绘制内容可能仍在引用
+     */
+    void trimArtifacts() {
+        mSunPath = null;
+        mCloudBitmap = null;
+    }
+
+    /**
+     * 获取太阳内圆半径
+     *
+     * @return 内圆半径
+     */
+    int getSunInnerRadius() {
+        return sunRadius - SUN_RING_WIDTH;
+    }
+
+    @ColorInt
+    public int getWaveColorLight() {
+        return waveColorLight;
+    }
+
+    @ColorInt
+    public int getWaveColorDark() {
+        return waveColorDark;
+    }
+
+    @ColorInt
+    public int getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    @ColorInt
+    public int getSunColor() {
+        return sunColor;
+    }
+
+    @ColorInt
+    public int getCloudColor() {
+        return cloudColor;
+    }
+
+    public int getPeakHeight() {
+        return peakHeight;
+    }
+
+    public int getWaveWidth() {
+        return waveWidth;
+    }
+
+    public int getSunRadius() {
+        return sunRadius;
+    }
+
+    public int getSunshineLength() {
+        return sunshineLength;
+    }
+
+    public int getCloudWidth() {
+        return cloudWidth;
+    }
+
+    public int getCloudHeight() {
+        return cloudHeight;
+    }
+
+    public long getRestoreDuration() {
+        return restoreDuration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WaveStyle)) return false;
+        WaveStyle style = (WaveStyle) o;
+        return waveColorLight == style.waveColorLight
+                && waveColorDark == style.waveColorDark
+                && backgroundColor == style.backgroundColor
+                && sunColor == style.sunColor
+                && cloudColor == style.cloudColor
+                && peakHeight == style.peakHeight
+                && waveWidth == style.waveWidth
+                && sunRadius == style.sunRadius
+                && sunshineLength == style.sunshineLength
+                && cloudWidth == style.cloudWidth
+                && cloudHeight == style.cloudHeight
+                && restoreDuration == style.restoreDuration;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = waveColorLight;
+        result = 31 * result + waveColorDark;
+        result = 31 * result + backgroundColor;
+        result = 31 * result + sunColor;
+        result = 31 * result + cloudColor;
+        result = 31 * result + peakHeight;
+        result = 31 * result + waveWidth;
+        result = 31 * result + sunRadius;
+        result = 31 * result + sunshineLength;
+        result = 31 * result + cloudWidth;
+        result = 31 * result + cloudHeight;
+        result = 31 * result + (int) (restoreDuration ^ (restoreDuration >>> 32));
+        return result;
+    }
+
+    /**
+     * 样式构建器，未设置的参数使用与布局属性相同的默认值
+     */
+    public static final class Builder {
+
+        private int mWaveColorLight = 0xFF2186F3;
+
+        private int mWaveColorDark = 0xFF175DAA;
+
+        private int mBackgroundColor = 0xFF64A8D1;
+
+        private int mSunColor = 0xFFFFC900;
+
+        private int mCloudColor = Color.WHITE;
+
+        private int mPeakHeight = 16;
+
+        private int mWaveWidth = 200;
+
+        private int mSunRadius = 36;
+
+        private int mSunshineLength = 16;
+
+        private int mCloudWidth = 108;
+
+        private int mCloudHeight = 72;
+
+        private long mRestoreDuration = 200;
+
+        public Builder() {
+        }
+
+        private Builder(WaveStyle style) {
+            mWaveColorLight = style.waveColorLight;
+            mWaveColorDark = style.waveColorDark;
+            mBackgroundColor = style.backgroundColor;
+            mSunColor = style.sunColor;
+            mCloudColor = style.cloudColor;
+            mPeakHeight = style.peakHeight;
+            mWaveWidth = style.waveWidth;
+            mSunRadius = style.sunRadius;
+            mSunshineLength = style.sunshineLength;
+            mCloudWidth = style.cloudWidth;
+            mCloudHeight = style.cloudHeight;
+            mRestoreDuration = style.restoreDuration;
+        }
+
+        public Builder setWaveColorLight(@ColorInt int color) {
+            mWaveColorLight = color;
+            return this;
+        }
+
+        public Builder setWaveColorDark(@ColorInt int color) {
+            mWaveColorDark = color;
+            return this;
+        }
+
+        public Builder setBackgroundColor(@ColorInt int color) {
+            mBackgroundColor = color;
+            return this;
+        }
+
+        public Builder setSunColor(@ColorInt int color) {
+            mSunColor = color;
+            return this;
+        }
+
+        public Builder setCloudColor(@ColorInt int color) {
+            mCloudColor = color;
+            return this;
+        }
+
+        /**
+         * 设置波峰初始高度
+         *
+         * @param height 像素值
+         */
+        public Builder setPeakHeight(int height) {
+            mPeakHeight = height;
+            return this;
+        }
+
+        /**
+         * 设置单个波浪的宽度
+         *
+         * @param width 像素值，必须大于0
+         */
+        public Builder setWaveWidth(int width) {
+            if (width <= 0) throw new IllegalArgumentException("波浪宽度必须大于0");
+            mWaveWidth = width;
+            return this;
+        }
+
+        /**
+         * 设置太阳外圆半径
+         *
+         * @param radius 像素值，必须大于内外圆间距
+         */
+        public Builder setSunRadius(int radius) {
+            if (radius <= SUN_RING_WIDTH) throw new IllegalArgumentException("太阳半径必须大于" + SUN_RING_WIDTH);
+            mSunRadius = radius;
+            return this;
+        }
+
+        public Builder setSunshineLength(int length) {
+            mSunshineLength = length;
+            return this;
+        }
+
+        /**
+         * 设置云朵尺寸
+         *
+         * @param width  像素值，必须大于0
+         * @param height 像素值，必须大于0
+         */
+        public Builder setCloudSize(int width, int height) {
+            if (width <= 0 || height <= 0) throw new IllegalArgumentException("云朵尺寸必须大于0");
+            mCloudWidth = width;
+            mCloudHeight = height;
+            return this;
+        }
+
+        /**
+         * 设置回弹时间
+         *
+         * @param duration 毫秒数
+         * @see WaveRefreshLayout#setRestoreDuration(long)
+         */
+        public Builder setRestoreDuration(long duration) {
+            if (duration < 0) throw new IllegalArgumentException("回弹时间不能为负数");
+            mRestoreDuration = duration;
+            return this;
+        }
+
+        /**
+         * 构建样式，与已有样式参数相同时返回已有实例，以便共享预计算资源
+         *
+         * @return 样式
+         */
+        public WaveStyle build() {
+            final WaveStyle style = new WaveStyle(this);
+            final WeakReference<WaveStyle> ref = sInterned.get(style);
+            final WaveStyle interned = ref == null ? null : ref.get();
+            if (interned != null) return interned;
+            sInterned.put(style, new WeakReference<>(style));
+            return style;
+        }
+    }
+
+    /**
+     * 样式资源的解析结果及解析时的主题和配置
+     */
+    private static final class StyleResourceEntry {
+
+        private final WeakReference<Resources.Theme> mTheme;
+
+        private final Configuration mConfiguration;
+
+        private final WeakReference<WaveStyle> mStyle;
+
+        StyleResourceEntry(Resources.Theme theme, Configuration configuration, WaveStyle style) {
+            mTheme = new WeakReference<>(theme);
+            mConfiguration = new Configuration(configuration);
+            mStyle = new WeakReference<>(style);
+        }
+
+        /**
+         * 获取在指定主题及配置下仍然有效的样式
+         *
+         * @return 样式，主题或配置不同时返回null
+         */
+        WaveStyle get(Resources.Theme theme, Configuration configuration) {
+            if (mTheme.get() != theme || mConfiguration.diff(configuration) != 0) return null;
+            return mStyle.get();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.felix.waverefreshlayout.library;
+
+/**
+ * 性能追踪接口，{@link WaveRefreshLayout}会在绘制、路径重建、手势处理及刷新回调前后成对调用
+ * {@link #beginSection(String)}和{@link #endSection()}，默认为{@link #NONE}不做任何操作
+ *
+ * @author Felix
+ * @see WaveRefreshLayout#setTracer(WaveTracer)
+ * @see SystemTracer
+ * @see RecordingTracer
+ */
+public interface WaveTracer {
+
+    String SECTION_DRAW = "WaveRefreshLayout#onDraw";
+
+    String SECTION_BACKGROUND_PATH = "WaveRefreshLayout#updateBackgroundPath";
+
+    String SECTION_DARK_WAVE_PATH = "WaveRefreshLayout#updateDarkWavePath";
+
+    String SECTION_LIGHT_WAVE_PATH = "WaveRefreshLayout#updateLightWavePath";
+
+    String SECTION_WAVE_MESH = "WaveRefreshLayout#updateWaveMesh";
+
+    String SECTION_SUN_PATH = "WaveRefreshLayout#updateSunPath";
+
+    String SECTION_TOUCH = "WaveRefreshLayout#onTouch";
+
+    String SECTION_COMPUTE_SCROLL = "WaveRefreshLayout#computeScroll";
+
+    String SECTION_ACQUIRE_DATA = "WaveRefreshLayout#onAcquireData";
+
+    String SECTION_LOAD_DATA = "WaveRefreshLayout#onLoadData";
+
+    /**
+     * 不做任何操作的追踪器
+     */
+    WaveTracer NONE = new WaveTracer() {
+        @Override
+        public void beginSection(String name) {
+        }
+
+        @Override
+        public void endSection() {
+        }
+    };
+
+    /**
+     * 开始一个区段，区段可嵌套
+     *
+     * @param name 区段名
+     */
+    void beginSection(String name);
+
+    /**
+     * 结束最近开始的区段
+     */
+    void endSection();
+}
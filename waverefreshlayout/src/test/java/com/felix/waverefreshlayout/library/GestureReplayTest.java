@@ -0,0 +1,130 @@
+package com.felix.waverefreshlayout.library;
+
+import android.graphics.Color;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 手势回放测试，注入确定的下拉手势并检查经历的状态及是否触发刷新，以及回放期间原状态监听器不受影响
+ *
+ * @author Felix
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class GestureReplayTest {
+
+    private WaveRefreshLayout mLayout;
+
+    private int mAcquireCount;
+
+    @Before
+    public void setUp() {
+        mLayout = new WaveRefreshLayout(RuntimeEnvironment.application);
+        View content = new View(RuntimeEnvironment.application);
+        content.setBackgroundColor(Color.WHITE);
+        mLayout.addView(content, new WaveRefreshLayout.LayoutParams(480, 800));
+        mLayout.measure(View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY));
+        mLayout.layout(0, 0, 480, 800);
+        mLayout.setOnRefreshListener(new WaveRefreshLayout.OnRefreshListener() {
+            @Override
+            public void onAcquireData() {
+                mAcquireCount++;
+            }
+
+            @Override
+            public void onLoadData() {
+            }
+        });
+    }
+
+    @Test
+    public void longPullFiresRefresh() {
+        GestureReplayer.Session session = GestureReplayer.replayImmediately(mLayout, pull(900));
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+        GestureReplayer.Report report = session.finish();
+
+        assertTrue(report.isRefreshFired());
+        assertEquals(1, mAcquireCount);
+        assertTrue(report.getVisitedStates().contains(WaveRefreshLayout.STATE_REFRESHABLE));
+        assertEquals(WaveRefreshLayout.STATE_REFRESHABLE, mLayout.getState());
+        assertTrue(mLayout.isRefreshing());
+    }
+
+    @Test
+    public void shortPullDoesNotRefresh() {
+        GestureReplayer.Session session = GestureReplayer.replayImmediately(mLayout, pull(120));
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+        GestureReplayer.Report report = session.finish();
+
+        assertFalse(report.isRefreshFired());
+        assertEquals(0, mAcquireCount);
+        assertTrue(report.getVisitedStates().contains(WaveRefreshLayout.STATE_SHOW_SUN));
+        assertFalse(report.getVisitedStates().contains(WaveRefreshLayout.STATE_REFRESHABLE));
+        assertEquals(WaveRefreshLayout.STATE_NORMAL, mLayout.getState());
+    }
+
+    @Test
+    public void visitedStatesMatchStateCallbacks() {
+        final List<Integer> states = new ArrayList<>();
+        states.add(mLayout.getState());
+        WaveRefreshLayout.OnPullStateListener listener = new WaveRefreshLayout.OnPullStateListener() {
+            @Override
+            public void onStateChanged(int oldState, int newState) {
+                states.add(newState);
+            }
+
+            @Override
+            public void onRefreshLikely() {
+            }
+        };
+        mLayout.setOnPullStateListener(listener);
+
+        GestureReplayer.Session session = GestureReplayer.replayImmediately(mLayout, pull(300));
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+        GestureReplayer.Report report = session.finish();
+
+        assertTrue(states.size() > 2);
+        assertEquals(states, report.getVisitedStates());
+        assertSame(listener, mLayout.getOnPullStateListener());
+    }
+
+    @Test
+    public void recordedTraceRoundTrips() {
+        GestureRecorder recorder = new GestureRecorder();
+        mLayout.setGestureRecorder(recorder);
+        GestureTrace original = pull(300);
+        GestureReplayer.replayImmediately(mLayout, original).finish();
+        mLayout.setGestureRecorder(null);
+
+        GestureTrace recorded = recorder.getTrace();
+        assertEquals(original.getEvents().size(), recorded.getEvents().size());
+        assertEquals(original.encode(), recorded.encode());
+        assertEquals(recorded.encode(), GestureTrace.decode(recorded.encode()).encode());
+    }
+
+    /**
+     * 生成一次向下拖动的手势，每个移动事件包含两个采样
+     *
+     * @param distance 拖动距离
+     */
+    private static GestureTrace pull(int distance) {
+        return TouchTraces.drag(0, distance, 2);
+    }
+}
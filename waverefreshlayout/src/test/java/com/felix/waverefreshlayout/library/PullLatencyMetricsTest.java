@@ -0,0 +1,128 @@
+package com.felix.waverefreshlayout.library;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 下拉延迟统计测试，检查单次手势的百分位计算及多次手势统计的环形缓冲
+ *
+ * @author Felix
+ */
+public class PullLatencyMetricsTest {
+
+    @Test
+    public void emptyRecordIsNotRecorded() {
+        PullLatencyRecord record = new PullLatencyRecord(0);
+
+        assertEquals(0, record.getSampleCount());
+        assertEquals(RefreshRecord.NOT_RECORDED, record.getPercentile(50));
+        assertEquals(RefreshRecord.NOT_RECORDED, record.getMax());
+    }
+
+    @Test
+    public void recordPercentilesUseNearestRank() {
+        PullLatencyRecord record = new PullLatencyRecord(0);
+        for (long latency : new long[]{7, 3, 10, 1, 9, 2, 8, 4, 6, 5}) record.add(latency);
+
+        assertEquals(1, record.getPercentile(0));
+        assertEquals(5, record.getPercentile(50));
+        assertEquals(9, record.getPercentile(90));
+        assertEquals(10, record.getPercentile(95));
+        assertEquals(10, record.getMax());
+    }
+
+    @Test
+    public void recordSortsAgainAfterLaterSamples() {
+        PullLatencyRecord record = new PullLatencyRecord(0);
+        record.add(20);
+        record.add(30);
+        assertEquals(30, record.getMax());
+
+        record.add(10);
+
+        assertEquals(10, record.getPercentile(0));
+        assertEquals(20, record.getPercentile(50));
+        assertEquals(30, record.getMax());
+    }
+
+    @Test
+    public void recordGrowsPastInitialCapacity() {
+        PullLatencyRecord record = new PullLatencyRecord(0);
+        for (int i = 100; i > 0; i--) record.add(i);
+
+        assertEquals(100, record.getSampleCount());
+        assertEquals(1, record.getPercentile(0));
+        assertEquals(50, record.getPercentile(50));
+        assertEquals(100, record.getMax());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void recordRejectsPercentileOutOfRange() {
+        new PullLatencyRecord(0).getPercentile(101);
+    }
+
+    @Test
+    public void metricsIgnoreEmptyRecords() {
+        PullLatencyMetrics metrics = new PullLatencyMetrics();
+        metrics.add(new PullLatencyRecord(0));
+
+        assertEquals(0, metrics.getCount());
+        assertEquals(RefreshRecord.NOT_RECORDED, metrics.getPercentile(PullLatencyMetrics.STAT_MAX, 50));
+    }
+
+    @Test
+    public void metricsSummarizeEachRecord() {
+        PullLatencyMetrics metrics = new PullLatencyMetrics();
+        metrics.add(record(10, 20, 30, 40));
+        metrics.add(record(50, 60));
+
+        assertEquals(2, metrics.getCount());
+        assertEquals(20, metrics.getPercentile(PullLatencyMetrics.STAT_P50, 0));
+        assertEquals(50, metrics.getPercentile(PullLatencyMetrics.STAT_P50, 100));
+        assertEquals(40, metrics.getPercentile(PullLatencyMetrics.STAT_P90, 50));
+        assertEquals(60, metrics.getPercentile(PullLatencyMetrics.STAT_MAX, 100));
+    }
+
+    @Test
+    public void metricsKeepLatestRecordsWhenFull() {
+        PullLatencyMetrics metrics = new PullLatencyMetrics(3);
+        for (int i = 1; i <= 5; i++) metrics.add(record(i));
+
+        assertEquals(3, metrics.getCount());
+        assertEquals(3, metrics.getPercentile(PullLatencyMetrics.STAT_MAX, 0));
+        assertEquals(4, metrics.getPercentile(PullLatencyMetrics.STAT_MAX, 50));
+        assertEquals(5, metrics.getPercentile(PullLatencyMetrics.STAT_MAX, 100));
+
+        metrics.add(record(1));
+
+        assertEquals(3, metrics.getCount());
+        assertEquals(1, metrics.getPercentile(PullLatencyMetrics.STAT_MAX, 0));
+        assertEquals(5, metrics.getPercentile(PullLatencyMetrics.STAT_MAX, 100));
+    }
+
+    @Test
+    public void clearDropsAllRecords() {
+        PullLatencyMetrics metrics = new PullLatencyMetrics(2);
+        metrics.add(record(10));
+        metrics.add(record(20));
+        metrics.add(record(30));
+        metrics.clear();
+        metrics.add(record(5));
+
+        assertEquals(1, metrics.getCount());
+        assertEquals(5, metrics.getPercentile(PullLatencyMetrics.STAT_MAX, 0));
+        assertEquals(5, metrics.getPercentile(PullLatencyMetrics.STAT_MAX, 100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void metricsRejectEmptyCapacity() {
+        new PullLatencyMetrics(0);
+    }
+
+    private static PullLatencyRecord record(long... latencies) {
+        PullLatencyRecord record = new PullLatencyRecord(0);
+        for (long latency : latencies) record.add(latency);
+        return record;
+    }
+}
@@ -0,0 +1,97 @@
+package com.felix.waverefreshlayout.library;
+
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 下拉延迟记录测试，逐帧推进主线程，检查每个下拉位置发生变化的帧恰好产生一个样本
+ *
+ * @author Felix
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class PullLatencyTest {
+
+    private static final long FRAME_TIME = 16;
+
+    private WaveRefreshLayout mLayout;
+
+    private PullLatencyRecord mRecord;
+
+    private int mRecordCount;
+
+    @Before
+    public void setUp() {
+        mLayout = new WaveRefreshLayout(RuntimeEnvironment.application);
+        View content = new View(RuntimeEnvironment.application);
+        content.setBackgroundColor(Color.WHITE);
+        mLayout.addView(content, new WaveRefreshLayout.LayoutParams(480, 800));
+        mLayout.measure(View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY));
+        mLayout.layout(0, 0, 480, 800);
+        mLayout.setOnPullLatencyListener(new WaveRefreshLayout.OnPullLatencyListener() {
+            @Override
+            public void onPullLatencyRecorded(PullLatencyRecord record, PullLatencyMetrics metrics) {
+                mRecord = record;
+                mRecordCount++;
+            }
+        });
+    }
+
+    @Test
+    public void oneSamplePerChangedFrame() {
+        final long downTime = SystemClock.uptimeMillis();
+        TouchTraces.dispatchNow(mLayout, MotionEvent.ACTION_DOWN, downTime, 0);
+        int changedFrames = 0;
+        float y = 0;
+        for (int frame = 0; frame < 12; frame++) {
+            final int scrollY = mLayout.getScrollY();
+            if (frame % 4 != 3) {//每四帧中有一帧不移动，该帧不应产生样本
+                y += 10;
+                TouchTraces.dispatchNow(mLayout, MotionEvent.ACTION_MOVE, downTime, y);
+                y += 10;
+                TouchTraces.dispatchNow(mLayout, MotionEvent.ACTION_MOVE, downTime, y);
+            }
+            if (mLayout.getScrollY() != scrollY) changedFrames++;
+            ShadowLooper.idleMainLooper(FRAME_TIME, TimeUnit.MILLISECONDS);
+        }
+        TouchTraces.dispatchNow(mLayout, MotionEvent.ACTION_UP, downTime, y);
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+
+        assertTrue(changedFrames >= 8);
+        assertEquals(1, mRecordCount);
+        assertNotNull(mRecord);
+        assertEquals(downTime, mRecord.getDownTime());
+        assertEquals(changedFrames, mRecord.getSampleCount());
+        assertTrue(mRecord.getPercentile(0) >= 0);
+        assertEquals(1, mLayout.getPullLatencyMetrics().getCount());
+    }
+
+    @Test
+    public void gestureWithoutPullIsNotRecorded() {
+        final long downTime = SystemClock.uptimeMillis();
+        TouchTraces.dispatchNow(mLayout, MotionEvent.ACTION_DOWN, downTime, 100);
+        ShadowLooper.idleMainLooper(FRAME_TIME, TimeUnit.MILLISECONDS);
+        TouchTraces.dispatchNow(mLayout, MotionEvent.ACTION_UP, downTime, 100);
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+
+        assertEquals(0, mRecordCount);
+        assertEquals(0, mLayout.getPullLatencyMetrics().getCount());
+    }
+}
@@ -0,0 +1,132 @@
+package com.felix.waverefreshlayout.library;
+
+import android.graphics.Color;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 刷新组测试，检查多个成员的下拉合并为一次获取并分别加载数据
+ *
+ * @author Felix
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class RefreshGroupTest {
+
+    private RefreshGroup mGroup;
+
+    private WaveRefreshLayout mFirst;
+
+    private WaveRefreshLayout mSecond;
+
+    private CountingListener mFirstListener;
+
+    private CountingListener mSecondListener;
+
+    @Before
+    public void setUp() {
+        mGroup = new RefreshGroup();
+        mFirstListener = new CountingListener();
+        mSecondListener = new CountingListener();
+        mFirst = createMember(mFirstListener);
+        mSecond = createMember(mSecondListener);
+    }
+
+    @Test
+    public void concurrentPullsShareOneAcquire() {
+        pull(mFirst);
+        pull(mSecond);
+
+        assertEquals(1, mFirstListener.acquireCount + mSecondListener.acquireCount);
+        assertTrue(mGroup.isRefreshing());
+        assertEquals(2, mGroup.getWaitingCount());
+        assertTrue(mFirst.isRefreshing());
+        assertTrue(mSecond.isRefreshing());
+
+        mFirst.finishRefresh();
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+
+        assertFalse(mGroup.isRefreshing());
+        assertEquals(1, mFirstListener.loadCount);
+        assertEquals(1, mSecondListener.loadCount);
+        assertFalse(mFirst.isRefreshing());
+        assertFalse(mSecond.isRefreshing());
+    }
+
+    @Test
+    public void pullAfterFinishStartsNewAcquire() {
+        pull(mFirst);
+        mFirst.finishRefresh();
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+        pull(mSecond);
+
+        assertEquals(1, mFirstListener.acquireCount);
+        assertEquals(1, mSecondListener.acquireCount);
+        assertEquals(0, mSecondListener.loadCount);
+    }
+
+    @Test
+    public void waitingMemberTakesOverWhenLeaderLeaves() {
+        pull(mFirst);
+        pull(mSecond);
+        mFirst.setRefreshGroup(null);
+
+        assertEquals(1, mSecondListener.acquireCount);
+        assertTrue(mGroup.isRefreshing());
+        mSecond.finishRefresh();
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+        assertEquals(1, mSecondListener.loadCount);
+        assertTrue(mFirst.isRefreshing());
+    }
+
+    private WaveRefreshLayout createMember(WaveRefreshLayout.OnRefreshListener listener) {
+        WaveRefreshLayout layout = new WaveRefreshLayout(RuntimeEnvironment.application);
+        View content = new View(RuntimeEnvironment.application);
+        content.setBackgroundColor(Color.WHITE);
+        layout.addView(content, new WaveRefreshLayout.LayoutParams(480, 800));
+        layout.measure(View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY));
+        layout.layout(0, 0, 480, 800);
+        layout.setOnRefreshListener(listener);
+        layout.setRefreshGroup(mGroup);
+        return layout;
+    }
+
+    /**
+     * 在控件上执行一次足以触发刷新的下拉，并等待回弹结束
+     */
+    private static void pull(WaveRefreshLayout layout) {
+        GestureReplayer.replayImmediately(layout, TouchTraces.drag(0, 900, 1)).finish();
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+    }
+
+    private static class CountingListener implements WaveRefreshLayout.OnRefreshListener {
+
+        int acquireCount;
+
+        int loadCount;
+
+        @Override
+        public void onAcquireData() {
+            acquireCount++;
+        }
+
+        @Override
+        public void onLoadData() {
+            loadCount++;
+        }
+    }
+}
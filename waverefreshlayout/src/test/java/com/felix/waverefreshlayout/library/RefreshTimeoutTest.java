@@ -0,0 +1,119 @@
+package com.felix.waverefreshlayout.library;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 刷新超时测试，检查移出窗口期间不会超时，重新添加后继续剩余的计时
+ *
+ * @author Felix
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class RefreshTimeoutTest {
+
+    private static final long TIMEOUT = 4000;
+
+    private FrameLayout mContainer;
+
+    private WaveRefreshLayout mLayout;
+
+    private int mTimeoutCount;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        mContainer = new FrameLayout(activity);
+        activity.setContentView(mContainer);
+        mLayout = new WaveRefreshLayout(activity);
+        View content = new View(activity);
+        content.setBackgroundColor(Color.WHITE);
+        mLayout.addView(content, new WaveRefreshLayout.LayoutParams(480, 800));
+        mLayout.setRefreshTimeout(TIMEOUT);
+        mLayout.setOnRefreshListener(new WaveRefreshLayout.OnRefreshListener() {
+            @Override
+            public void onAcquireData() {
+            }
+
+            @Override
+            public void onLoadData() {
+            }
+        });
+        mLayout.setOnRefreshTimeoutListener(new WaveRefreshLayout.OnRefreshTimeoutListener() {
+            @Override
+            public void onRefreshTimeout(long timeout) {
+                mTimeoutCount++;
+            }
+        });
+        mContainer.addView(mLayout, new FrameLayout.LayoutParams(480, 800));
+        mLayout.measure(View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY));
+        mLayout.layout(0, 0, 480, 800);
+    }
+
+    @Test
+    public void attachedRefreshTimesOut() {
+        pull();
+
+        ShadowLooper.idleMainLooper(TIMEOUT, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, mTimeoutCount);
+        assertFalse(mLayout.isRefreshing());
+    }
+
+    @Test
+    public void detachedRefreshDoesNotTimeOut() {
+        pull();
+        mContainer.removeView(mLayout);
+
+        ShadowLooper.idleMainLooper(TIMEOUT * 2, TimeUnit.MILLISECONDS);
+
+        assertEquals(0, mTimeoutCount);
+        assertTrue(mLayout.isRefreshing());
+
+        mContainer.addView(mLayout);
+        ShadowLooper.idleMainLooper(0, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, mTimeoutCount);
+        assertFalse(mLayout.isRefreshing());
+    }
+
+    @Test
+    public void reattachedRefreshKeepsRemainingTime() {
+        pull();
+        ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+        mContainer.removeView(mLayout);
+        mContainer.addView(mLayout);
+
+        ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+        assertEquals(0, mTimeoutCount);
+
+        ShadowLooper.idleMainLooper(2000, TimeUnit.MILLISECONDS);
+        assertEquals(1, mTimeoutCount);
+    }
+
+    /**
+     * 下拉足够距离触发刷新并等待弹回刷新位置，超时从开始获取数据时计时
+     */
+    private void pull() {
+        GestureReplayer.replayImmediately(mLayout, TouchTraces.drag(0, 900, 1)).finish();
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+        assertTrue(mLayout.isRefreshing());
+    }
+}
@@ -0,0 +1,96 @@
+package com.felix.waverefreshlayout.library;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * 测试用触摸序列，生成竖直拖动手势并直接分发给控件
+ *
+ * @author Felix
+ */
+final class TouchTraces {
+
+    /**
+     * 触摸点横坐标
+     */
+    static final float X = 240;
+
+    /**
+     * 移动事件数
+     */
+    static final int STEPS = 30;
+
+    /**
+     * 相邻移动事件的时间间隔
+     */
+    static final long FRAME_TIME = 16;
+
+    private TouchTraces() {
+    }
+
+    /**
+     * 生成一次竖直拖动后松手的手势，移动事件均匀分布，松手位置与最后一个移动事件相同
+     *
+     * @param fromY          按下位置
+     * @param toY            松手位置
+     * @param samplesPerMove 每个移动事件包含的采样数，多于1时之前的采样作为历史采样均匀插在两个事件之间
+     * @return 触摸事件序列
+     */
+    static GestureTrace drag(float fromY, float toY, int samplesPerMove) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(MotionEvent.ACTION_DOWN).append(" 1 0;0 ").append(X).append(' ').append(fromY).append('\n');
+        for (int i = 1; i <= STEPS; i++) {
+            sb.append(MotionEvent.ACTION_MOVE).append(" 1 0");
+            for (int s = samplesPerMove - 1; s >= 0; s--) {
+                final float step = i - s / (float) samplesPerMove;
+                sb.append(';').append(Math.round(step * FRAME_TIME))
+                        .append(' ').append(X).append(' ').append(fromY + (toY - fromY) * step / STEPS);
+            }
+            sb.append('\n');
+        }
+        sb.append(MotionEvent.ACTION_UP).append(" 1 0;").append((STEPS + 1) * FRAME_TIME)
+                .append(' ').append(X).append(' ').append(toY).append('\n');
+        return GestureTrace.decode(sb.toString());
+    }
+
+    /**
+     * 立即依次分发序列中的全部事件，不经过{@link GestureReplayer}，可用于任意控件
+     *
+     * @param target 目标控件
+     * @param trace  触摸事件序列
+     */
+    static void dispatch(View target, GestureTrace trace) {
+        final long baseTime = SystemClock.uptimeMillis();
+        for (GestureTrace.Event event : trace.getEvents()) {
+            dispatch(target, event, baseTime);
+        }
+    }
+
+    /**
+     * 以当前时间分发单点触摸事件，用于与帧推进交替进行的手势
+     *
+     * @param target   目标控件
+     * @param action   动作
+     * @param downTime 按下时间
+     * @param y        触摸点纵坐标
+     */
+    static void dispatchNow(View target, int action, long downTime, float y) {
+        final MotionEvent motionEvent = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, X, y, 0);
+        target.dispatchTouchEvent(motionEvent);
+        motionEvent.recycle();
+    }
+
+    /**
+     * 分发单个事件
+     *
+     * @param target   目标控件
+     * @param event    事件
+     * @param baseTime 序列开始时间
+     */
+    static void dispatch(View target, GestureTrace.Event event, long baseTime) {
+        final MotionEvent motionEvent = event.obtain(baseTime);
+        target.dispatchTouchEvent(motionEvent);
+        motionEvent.recycle();
+    }
+}
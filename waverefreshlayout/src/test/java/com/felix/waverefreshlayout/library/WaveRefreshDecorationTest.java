@@ -0,0 +1,161 @@
+package com.felix.waverefreshlayout.library;
+
+import android.support.v7.widget.LinearLayoutManager;
+import android.os.SystemClock;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 列表装饰测试，检查第一行上方预留头部，列表顶部下拉触发刷新，以及刷新期间列表内容的触摸不被接管
+ *
+ * @author Felix
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class WaveRefreshDecorationTest {
+
+    private RecyclerView mRecyclerView;
+
+    private WaveRefreshDecoration mDecoration;
+
+    private int mAcquireCount;
+
+    private int mLoadCount;
+
+    @Before
+    public void setUp() {
+        mRecyclerView = new RecyclerView(RuntimeEnvironment.application);
+        mRecyclerView.setLayoutManager(new LinearLayoutManager(RuntimeEnvironment.application));
+        mRecyclerView.setAdapter(new ItemAdapter());
+        mDecoration = new WaveRefreshDecoration(RuntimeEnvironment.application);
+        mDecoration.attachToRecyclerView(mRecyclerView);
+        mDecoration.setOnRefreshListener(new WaveRefreshLayout.OnRefreshListener() {
+            @Override
+            public void onAcquireData() {
+                mAcquireCount++;
+            }
+
+            @Override
+            public void onLoadData() {
+                mLoadCount++;
+            }
+        });
+        mRecyclerView.measure(View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY));
+        mRecyclerView.layout(0, 0, 480, 800);
+    }
+
+    @Test
+    public void firstRowLeavesRoomForHeader() {
+        final int headerHeight = WaveHeaderRenderer.WAVE_BASELINE_OFFSET + mDecoration.getWaveStyle().getPeakHeight()
+                + WaveHeaderRenderer.MIN_WAVE_HEIGHT;
+
+        assertEquals(headerHeight, mRecyclerView.getChildAt(0).getTop());
+        assertEquals(headerHeight + 100, mRecyclerView.getChildAt(1).getTop());
+    }
+
+    @Test
+    public void pullAtTopRefreshes() {
+        pull(900);
+
+        assertEquals(1, mAcquireCount);
+        assertTrue(mDecoration.isRefreshing());
+        assertEquals(WaveHeaderRenderer.MIN_REFRESH_HEIGHT, (int) mRecyclerView.getChildAt(0).getTranslationY());
+
+        mDecoration.finishRefresh();
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+
+        assertFalse(mDecoration.isRefreshing());
+        assertEquals(1, mLoadCount);
+        assertEquals(0, (int) mRecyclerView.getChildAt(0).getTranslationY());
+    }
+
+    @Test
+    public void shortPullDoesNotRefresh() {
+        pull(60);
+
+        assertEquals(0, mAcquireCount);
+        assertEquals(0, (int) mRecyclerView.getChildAt(0).getTranslationY());
+    }
+
+    @Test
+    public void dragOnContentWhileRefreshingScrollsList() {
+        pull(900);
+        assertTrue(mDecoration.isRefreshing());
+
+        TouchTraces.dispatch(mRecyclerView, TouchTraces.drag(700, 400, 1));
+
+        assertTrue(mDecoration.isRefreshing());
+        assertTrue(mRecyclerView.canScrollVertically(-1));
+    }
+
+    @Test
+    public void liftingFirstPointerDoesNotJump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(MotionEvent.ACTION_DOWN).append(" 1 0;0 240 200\n");
+        for (int i = 1; i <= 10; i++) {
+            sb.append(MotionEvent.ACTION_MOVE).append(" 1 0;").append(i * 16).append(" 240 ").append(200 + 20 * i)
+                    .append('\n');
+        }
+        sb.append(MotionEvent.ACTION_POINTER_DOWN | (1 << MotionEvent.ACTION_POINTER_INDEX_SHIFT))
+                .append(" 2 0 1;176 240 400 240 600\n");
+        sb.append(MotionEvent.ACTION_POINTER_UP).append(" 2 0 1;192 240 400 240 600\n");
+        sb.append(MotionEvent.ACTION_MOVE).append(" 1 1;208 240 600\n");
+        sb.append(MotionEvent.ACTION_UP).append(" 1 1;224 240 600\n");
+        final List<GestureTrace.Event> events = GestureTrace.decode(sb.toString()).getEvents();
+        final long baseTime = SystemClock.uptimeMillis();
+        for (int i = 0; i <= 10; i++) TouchTraces.dispatch(mRecyclerView, events.get(i), baseTime);
+        final float translation = mRecyclerView.getChildAt(0).getTranslationY();
+        assertTrue(translation > 0);
+
+        for (int i = 11; i <= 13; i++) TouchTraces.dispatch(mRecyclerView, events.get(i), baseTime);
+
+        assertEquals(translation, mRecyclerView.getChildAt(0).getTranslationY(), 0);
+        TouchTraces.dispatch(mRecyclerView, events.get(14), baseTime);
+    }
+
+    /**
+     * 从列表中部向下拖动指定距离后松手，并等待回弹结束
+     */
+    private void pull(int distance) {
+        TouchTraces.dispatch(mRecyclerView, TouchTraces.drag(200, 200 + distance, 1));
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+    }
+
+    private static class ItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return new RecyclerView.ViewHolder(view) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 20;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.felix.waverefreshlayout.library;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 头部绘制的金图测试，在固定的下拉偏移、波浪相位和太阳角度下将控件绘制到位图，并与已记录的金图按容差比较。
+ * 金图由引入本测试时的原始绘制方式记录，之后的绘制优化及网格绘制方式均应与其一致，不得为通过测试而重新记录。
+ * 网格绘制方式不抗锯齿，波浪边缘的差异在容差之内。
+ * 使用-Dgolden.record=true运行时会将当前绘制结果写为新的金图，仅用于有意改变外观的修改，缺少金图时测试失败。
+ *
+ * @author Felix
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@Config(sdk = 33)
+public class WaveRefreshLayoutGoldenTest {
+
+    private static final int WIDTH = 480;
+
+    private static final int HEIGHT = 800;
+
+    /**
+     * 单个像素各通道允许的最大差值
+     */
+    private static final int CHANNEL_TOLERANCE = 8;
+
+    /**
+     * 允许超出容差的像素比例
+     */
+    private static final float MISMATCH_TOLERANCE = 0.005f;
+
+    private WaveRefreshLayout mLayout;
+
+    @Before
+    public void setUp() {
+        mLayout = new WaveRefreshLayout(RuntimeEnvironment.application);
+        View content = new View(RuntimeEnvironment.application);
+        content.setBackgroundColor(Color.WHITE);
+        mLayout.addView(content, new WaveRefreshLayout.LayoutParams(WIDTH, HEIGHT));
+        mLayout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        mLayout.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    @Test
+    public void rest() throws IOException {
+        mLayout.setPullOffset(0);
+        mLayout.setAnimationFrame(0, 0, 0);
+        assertMatchesGolden("rest");
+    }
+
+    @Test
+    public void restShiftedWavePhase() throws IOException {
+        mLayout.setPullOffset(0);
+        mLayout.setAnimationFrame(-137, 0, 0);
+        assertMatchesGolden("rest_phase_137");
+    }
+
+    @Test
+    public void pullToRefresh() throws IOException {
+        mLayout.setPullOffset(-40);
+        mLayout.setAnimationFrame(-50, 0, 0);
+        assertMatchesGolden("pull_40");
+    }
+
+    @Test
+    public void showSun() throws IOException {
+        mLayout.setPullOffset(-120);
+        mLayout.setAnimationFrame(-80, 25, 0);
+        assertMatchesGolden("pull_120_sun_25");
+    }
+
+    @Test
+    public void refreshing() throws IOException {
+        WaveRefreshLayout.SavedState state = new WaveRefreshLayout.SavedState(View.BaseSavedState.EMPTY_STATE);
+        state.isRefreshing = true;
+        mLayout.onRestoreInstanceState(state);
+        mLayout.setAnimationFrame(-200, 95, 120);
+        assertMatchesGolden("refreshing_sun_95_cloud_120");
+    }
+
+    @Test
+    public void restMesh() throws IOException {
+        mLayout.setWaveRenderMode(WaveRefreshLayout.RENDER_MODE_MESH);
+        mLayout.setPullOffset(0);
+        mLayout.setAnimationFrame(-137, 0, 0);
+        assertMatchesGolden("rest_phase_137");
+    }
+
+    @Test
+    public void showSunMesh() throws IOException {
+        mLayout.setWaveRenderMode(WaveRefreshLayout.RENDER_MODE_MESH);
+        mLayout.setPullOffset(-120);
+        mLayout.setAnimationFrame(-80, 25, 0);
+        assertMatchesGolden("pull_120_sun_25");
+    }
+
+    @Test
+    public void refreshingMesh() throws IOException {
+        mLayout.setWaveRenderMode(WaveRefreshLayout.RENDER_MODE_MESH);
+        WaveRefreshLayout.SavedState state = new WaveRefreshLayout.SavedState(View.BaseSavedState.EMPTY_STATE);
+        state.isRefreshing = true;
+        mLayout.onRestoreInstanceState(state);
+        mLayout.setAnimationFrame(-200, 95, 120);
+        assertMatchesGolden("refreshing_sun_95_cloud_120");
+    }
+
+    /**
+     * 按父控件的方式应用滑动偏移后绘制整个控件
+     */
+    private Bitmap render() {
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.drawColor(Color.WHITE);
+        canvas.translate(-mLayout.getScrollX(), -mLayout.getScrollY());
+        mLayout.draw(canvas);
+        return bitmap;
+    }
+
+    private void assertMatchesGolden(String name) throws IOException {
+        final Bitmap actual = render();
+        final File golden = new File(System.getProperty("golden.dir", "src/test/resources/golden"), name + ".png");
+        if (Boolean.getBoolean("golden.record")) {
+            write(actual, golden);
+            return;
+        }
+        assertTrue("缺少金图" + golden + "，请使用-Dgolden.record=true记录", golden.exists());
+        final Bitmap expected = BitmapFactory.decodeFile(golden.getAbsolutePath());
+        assertTrue("金图尺寸不一致：" + name,
+                expected.getWidth() == actual.getWidth() && expected.getHeight() == actual.getHeight());
+        int mismatches = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (!isSimilar(expected.getPixel(x, y), actual.getPixel(x, y))) mismatches++;
+            }
+        }
+        final float ratio = mismatches / (float) (WIDTH * HEIGHT);
+        if (ratio > MISMATCH_TOLERANCE) {
+            write(actual, new File(golden.getParentFile(), name + "_actual.png"));
+        }
+        assertTrue(name + "与金图不一致的像素比例为" + ratio, ratio <= MISMATCH_TOLERANCE);
+    }
+
+    private static boolean isSimilar(int expected, int actual) {
+        return Math.abs(Color.alpha(expected) - Color.alpha(actual)) <= CHANNEL_TOLERANCE
+                && Math.abs(Color.red(expected) - Color.red(actual)) <= CHANNEL_TOLERANCE
+                && Math.abs(Color.green(expected) - Color.green(actual)) <= CHANNEL_TOLERANCE
+                && Math.abs(Color.blue(expected) - Color.blue(actual)) <= CHANNEL_TOLERANCE;
+    }
+
+    private static void write(Bitmap bitmap, File file) throws IOException {
+        file.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.felix.waverefreshlayout.library;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 波浪样式测试，检查相同参数的样式共享实例及预计算资源，控件设置项对样式的更新，以及布局属性中的小太阳半径
+ *
+ * @author Felix
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class WaveStyleTest {
+
+    @Test
+    public void equalStylesAreShared() {
+        WaveStyle first = new WaveStyle.Builder().setWaveColorDark(0xFF102030).setWaveWidth(180).build();
+        WaveStyle second = new WaveStyle.Builder().setWaveWidth(180).setWaveColorDark(0xFF102030).build();
+
+        assertSame(first, second);
+        assertSame(first.getSunPath(), second.getSunPath());
+    }
+
+    @Test
+    public void buildUponDerivesNewStyle() {
+        WaveStyle base = new WaveStyle.Builder().build();
+        WaveStyle derived = base.buildUpon().setCloudColor(0x80FFFFFF).build();
+
+        assertNotSame(base, derived);
+        assertEquals(0x80FFFFFF, derived.getCloudColor());
+        assertEquals(base.getWaveColorDark(), derived.getWaveColorDark());
+        assertSame(base, derived.buildUpon().setCloudColor(base.getCloudColor()).build());
+    }
+
+    @Test
+    public void layoutsShareStyleFromAttributes() {
+        WaveRefreshLayout first = new WaveRefreshLayout(RuntimeEnvironment.application);
+        WaveRefreshLayout second = new WaveRefreshLayout(RuntimeEnvironment.application);
+
+        assertSame(first.getWaveStyle(), second.getWaveStyle());
+    }
+
+    @Test
+    public void settersReplaceStyle() {
+        WaveRefreshLayout layout = new WaveRefreshLayout(RuntimeEnvironment.application);
+        WaveStyle original = layout.getWaveStyle();
+        layout.setWaveColorLight(0xFF00FF00);
+        layout.setRestoreDuration(320);
+
+        assertEquals(0xFF00FF00, layout.getWaveColorLight());
+        assertEquals(320, layout.getRestoreDuration());
+        assertEquals(0xFF00FF00, layout.getWaveStyle().getWaveColorLight());
+        assertNotSame(original, layout.getWaveStyle());
+    }
+
+    @Test
+    public void smallSunRadiusFromAttributesIsKept() {
+        WaveRefreshLayout layout = new WaveRefreshLayout(RuntimeEnvironment.application,
+                Robolectric.buildAttributeSet().addAttribute(R.attr.sunRadius, "6px").build());
+
+        assertEquals(6, layout.getWaveStyle().getSunRadius());
+        layout.getWaveStyle().getSunPath();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderRejectsSmallSunRadius() {
+        new WaveStyle.Builder().setSunRadius(6);
+    }
+}